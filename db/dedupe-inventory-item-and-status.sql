@@ -0,0 +1,56 @@
+-- One-off migration: merge duplicate inventory_item (site, SKU) rows and duplicate status
+-- rows per site, so uq_inventory_item_site_sku and uq_status_site can be built.
+--
+-- The application refuses to start while duplicates exist (RequiredIndexes); it never
+-- deletes rows itself. Review the preview queries, then run the script once, e.g.
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f db/dedupe-inventory-item-and-status.sql
+--
+-- Merge rules:
+--   inventory_item  the newest row (highest id) of each (site_id, sku) is kept with its
+--                   name, tags, unit and reorder_threshold; its qty becomes the sum of the
+--                   group's quantities, since each row counted stock of its own.
+--                   Rows without a site or SKU never collide and are left alone.
+--   status          the newest row of each site is kept; queue_len and service_rate_pph
+--                   are rewritten by the running application anyway.
+-- Removed rows are copied to *_dedupe_backup tables first; drop those once checked.
+
+-- Preview (run on its own first):
+--   SELECT site_id, sku, COUNT(*), SUM(qty) FROM inventory_item
+--    GROUP BY site_id, sku HAVING COUNT(*) > 1 ORDER BY site_id, sku;
+--   SELECT site_id, COUNT(*) FROM status GROUP BY site_id HAVING COUNT(*) > 1 ORDER BY site_id;
+
+BEGIN;
+
+CREATE TABLE inventory_item_dedupe_backup AS
+SELECT item.*, now() AS removed_at
+  FROM inventory_item item
+ WHERE EXISTS (SELECT 1 FROM inventory_item newer
+                WHERE newer.site_id = item.site_id AND newer.sku = item.sku AND newer.id > item.id);
+
+UPDATE inventory_item kept
+   SET qty = merged.qty
+  FROM (SELECT MAX(id) AS id, SUM(COALESCE(qty, 0)) AS qty
+          FROM inventory_item
+         WHERE site_id IS NOT NULL AND sku IS NOT NULL
+         GROUP BY site_id, sku
+        HAVING COUNT(*) > 1) merged
+ WHERE kept.id = merged.id;
+
+DELETE FROM inventory_item item
+ USING inventory_item_dedupe_backup removed
+ WHERE item.id = removed.id;
+
+CREATE TABLE status_dedupe_backup AS
+SELECT status.*, now() AS removed_at
+  FROM status
+ WHERE EXISTS (SELECT 1 FROM status newer
+                WHERE newer.site_id = status.site_id AND newer.id > status.id);
+
+DELETE FROM status
+ USING status_dedupe_backup removed
+ WHERE status.id = removed.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_inventory_item_site_sku ON inventory_item (site_id, sku);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_status_site ON status (site_id);
+
+COMMIT;
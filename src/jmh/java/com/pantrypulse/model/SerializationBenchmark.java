@@ -0,0 +1,78 @@
+package com.pantrypulse.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the payloads written most often: the site list returned by
+ * {@code GET /api/v1/sites} and the {@link SystemEvent}s sent to SSE clients and
+ * webhooks. The mapper is configured like Spring Boot's (Java time module, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"20", "200", "2000"})
+    public int sites;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter eventWriter;
+    private ApiResponse<List<Site>> siteList;
+    private SystemEvent event;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        eventWriter = objectMapper.writerFor(SystemEvent.class);
+        List<Site> list = new ArrayList<>(sites);
+        for (int i = 0; i < sites; i++) {
+            list.add(new Site((long) i + 1, "Community Pantry " + i, (100 + i) + " E Riverside Dr",
+                "Austin", "TX", String.valueOf(78701 + i % 50), 30.25 + i * 1e-4, -97.74 - i * 1e-4));
+        }
+        siteList = ApiResponse.success(list, "Fetched successfully");
+        event = new SystemEvent(123_456L, "queue.token.created", "QueueToken", 98_765L, 42L,
+            Map.of("tokenNumber", "AUS42-20260314-0017", "siteId", 42L, "estimatedWait", 35),
+            LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] siteListBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(siteList);
+    }
+
+    @Benchmark
+    public String siteListString() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(siteList);
+    }
+
+    @Benchmark
+    public byte[] systemEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] systemEventPreparedWriter() throws JsonProcessingException {
+        return eventWriter.writeValueAsBytes(event);
+    }
+}
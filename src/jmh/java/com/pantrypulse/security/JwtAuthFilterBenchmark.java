@@ -0,0 +1,57 @@
+package com.pantrypulse.security;
+
+import com.pantrypulse.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request authentication in {@link JwtAuthFilter}: a repeated token served from
+ * {@link JwtAuthenticationCache}, on one thread and on eight, against the same token
+ * verified from scratch each time (a cache that keeps nothing).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "c3VwZXJzZWNyZXRrZXl0aGF0aXNhdGxlYXN0MzJieXRlc2xvbmdmb3JIUzI1Ng==";
+
+    private JwtAuthFilter cachedFilter;
+    private JwtAuthFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(SECRET, 60);
+        cachedFilter = new JwtAuthFilter(jwtService, new JwtAuthenticationCache(10_000));
+        uncachedFilter = new JwtAuthFilter(jwtService, new JwtAuthenticationCache(0));
+        token = jwtService.issue("operator@pantrypulse.io", Map.of("role", "ROLE_OPERATOR"));
+        cachedFilter.authenticate(token);
+    }
+
+    @Benchmark
+    public UserDetails cached() {
+        return cachedFilter.authenticate(token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UserDetails cachedContended() {
+        return cachedFilter.authenticate(token);
+    }
+
+    @Benchmark
+    public UserDetails uncached() {
+        return uncachedFilter.authenticate(token);
+    }
+}
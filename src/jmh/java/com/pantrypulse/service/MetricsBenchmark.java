@@ -0,0 +1,121 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.pantrypulse.config.VersionedResponseCache;
+import com.pantrypulse.controller.MetricsController;
+import com.pantrypulse.model.SystemEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code /api/v1/metrics} reads: the aggregator's views on their own, and through
+ * {@link MetricsController} when the response has to be rendered, is served from the
+ * cached bytes, or is answered with 304. The aggregator is filled through its event
+ * handler, as in a running instance after startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetricsBenchmark {
+
+    private static final String[] CITIES = {"Austin", "Round Rock", "Pflugerville", "Cedar Park", "Georgetown",
+        "Leander", "Kyle", "Buda", "Manor", "Lakeway"};
+
+    @Param({"50", "500"})
+    public int sites;
+
+    @Param({"40"})
+    public int itemsPerSite;
+
+    private MetricsAggregator aggregator;
+    private MetricsController controller;
+    private ResourceVersions versions;
+    private String currentEtag;
+    private SystemEvent itemEvent;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        versions = new ResourceVersions(null, null);
+        QueueEngine queueEngine = new QueueEngine(null, null, null, null, null, 500, 50, 500, 30000, 60000);
+        aggregator = new MetricsAggregator(null, null, null, queueEngine, null, versions);
+        controller = new MetricsController(aggregator, null, versions, new VersionedResponseCache(objectMapper, 1000));
+
+        long itemId = 1;
+        for (long siteId = 1; siteId <= sites; siteId++) {
+            aggregator.onEvent(event("site.created", siteId, siteId,
+                Map.of("name", "Pantry " + siteId, "city", CITIES[(int) (siteId % CITIES.length)])));
+            for (int i = 0; i < itemsPerSite; i++, itemId++) {
+                aggregator.onEvent(event("inventory.updated", itemId, siteId,
+                    Map.of("siteId", siteId, "qty", i % 7 == 0 ? 2 : 40, "reorderThreshold", 5)));
+            }
+            for (int i = 0; i < 25; i++) {
+                aggregator.onEvent(event("queue.token.created", siteId * 1000 + i, siteId, Map.of("siteId", siteId)));
+            }
+        }
+        itemEvent = event("inventory.updated", 1L, 1L, Map.of("siteId", 1L, "qty", 3, "reorderThreshold", 5));
+        currentEtag = controller.getGlobalMetrics(null, null).getHeaders().getETag();
+    }
+
+    @Benchmark
+    public Map<String, Object> globalMetrics() {
+        return aggregator.globalMetrics();
+    }
+
+    @Benchmark
+    public Map<String, Object> siteMetrics() {
+        return aggregator.siteMetrics(1L);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> cityMetrics() {
+        return aggregator.cityMetrics();
+    }
+
+    @Benchmark
+    public void applyInventoryEvent() {
+        aggregator.onEvent(itemEvent);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> globalRendered() {
+        versions.bump(ResourceVersions.METRICS);
+        return controller.getGlobalMetrics(null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> cityRendered() {
+        versions.bump(ResourceVersions.METRICS);
+        return controller.getMetricsByCity(null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> globalCachedGzip() {
+        return controller.getGlobalMetrics(null, "gzip, deflate, br");
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> globalNotModified() {
+        return controller.getGlobalMetrics(currentEtag, null);
+    }
+
+    private static SystemEvent event(String type, Long entityId, Long siteId, Map<String, Object> data) {
+        return new SystemEvent(null, type, null, entityId, siteId, data, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,64 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.Site;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token number generation as done by {@code QueueService.createToken}: a number from
+ * {@link TokenNumberAllocator} formatted with the site's city, id and date. Blocks are
+ * reserved from an in-memory counter, so the figures exclude the database round trip
+ * made once per block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenNumberBenchmark {
+
+    @Param({"1", "50"})
+    public int sites;
+
+    @Param({"20"})
+    public int blockSize;
+
+    private TokenNumberAllocator allocator;
+    private Site[] siteList;
+    private final AtomicLong cursor = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        Map<String, AtomicLong> reserved = new ConcurrentHashMap<>();
+        allocator = new TokenNumberAllocator(
+            (seqKey, size) -> reserved.computeIfAbsent(seqKey, k -> new AtomicLong()).addAndGet(size), blockSize);
+        siteList = new Site[sites];
+        for (int i = 0; i < sites; i++) {
+            siteList[i] = new Site((long) i + 1, "Pantry " + i, i + " Main St", "Austin", "TX", "78701", null, null);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        Site site = siteList[(int) (cursor.getAndIncrement() % sites)];
+        LocalDate today = LocalDate.now();
+        return QueueService.formatTokenNumber(site, today, allocator.next(site.getId(), today));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateContended() {
+        return generate();
+    }
+}
@@ -0,0 +1,464 @@
+package com.pantrypulse.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pantrypulse.PantryPulseApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * HTTP load test for the check-in, operator, inventory, dashboard and SSE paths.
+ * <p>
+ * Without {@code loadtest.base-url} the application is started in-process on a random
+ * port against an embedded Postgres, so a run needs nothing installed. Each workload is
+ * open-loop: requests are scheduled at a fixed rate and latency is measured from the
+ * scheduled start, so a slow server is not hidden by the harness slowing down with it.
+ * Requests run on virtual threads when the JVM has them (Java 21+), otherwise on a
+ * fixed pool of {@code loadtest.threads}.
+ * <p>
+ * SSE fan-out latency is the gap between an event's {@code timestamp} and its arrival
+ * at a subscriber; it is only meaningful when the server shares the harness's clock.
+ */
+public final class LoadTest {
+
+    private static final String[] POLL_PATHS = {"/api/v1/status", "/api/v1/metrics", "/api/v1/sites"};
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .enable(SerializationFeature.INDENT_OUTPUT);
+    private final ExecutorService executor;
+    private final ExecutorService sseExecutor;
+    private final boolean virtualThreads;
+    private final HttpClient client;
+    private final Semaphore inFlight;
+
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final List<Long> siteIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final Queue<String> waitingTokens = new ConcurrentLinkedQueue<>();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final List<Stream<String>> sseStreams = new ArrayList<>();
+    private final AtomicInteger sseConnected = new AtomicInteger();
+    private final AtomicLong sseEvents = new AtomicLong();
+    private final AtomicLong operatorIdle = new AtomicLong();
+    private String bearer;
+    private volatile boolean stopping;
+
+    LoadTest(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        ExecutorService virtual = config.virtualThreads() ? virtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(config.threads(), daemon("loadtest-worker"));
+        this.sseExecutor = virtual != null ? virtualThreadExecutor() : Executors.newCachedThreadPool(daemon("loadtest-sse"));
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.inFlight = new Semaphore(config.maxInFlight());
+        for (String name : List.of("checkin", "call", "complete", "adjust", "poll", "sse.connect", "sse.fanout")) {
+            stats.put(name, new OperationStats(name));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.from(System.getProperties());
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            String baseUrl = config.baseUrl();
+            if (baseUrl == null) {
+                postgres = EmbeddedPostgres.start();
+                app = boot(postgres);
+                baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            }
+            new LoadTest(config, baseUrl).run();
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(EmbeddedPostgres postgres) {
+        // Command-line arguments, so they win over the dev profile's datasource settings
+        return new SpringApplicationBuilder(PantryPulseApplication.class).run(
+            "--spring.profiles.active=dev",
+            "--server.port=0",
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=postgres",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.pantrypulse=INFO"
+        );
+    }
+
+    void run() throws Exception {
+        seed();
+        System.out.printf("Seeded %d sites and %d items at %s (%s threads)%n", siteIds.size(), itemIds.size(),
+            baseUrl, virtualThreads ? "virtual" : config.threads() + " pooled");
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds() + config.durationSeconds());
+        for (int i = 0; i < config.sseSubscribers(); i++) {
+            sseExecutor.execute(this::subscribe);
+        }
+        List<Thread> dispatchers = new ArrayList<>();
+        dispatchers.add(dispatch("checkin", config.checkinRate(), end, this::checkin));
+        dispatchers.add(dispatch("operator", config.operatorRate(), end, this::callNext));
+        dispatchers.add(dispatch("adjust", config.adjustRate(), end, this::adjust));
+        dispatchers.add(dispatch("poll", config.pollRate(), end, this::poll));
+
+        TimeUnit.SECONDS.sleep(config.warmupSeconds());
+        stats.values().forEach(OperationStats::reset);
+        sseEvents.set(0);
+        operatorIdle.set(0);
+        LocalDateTime measuredFrom = LocalDateTime.now();
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        // Let requests already scheduled finish before the figures are read
+        inFlight.tryAcquire(config.maxInFlight(), 30, TimeUnit.SECONDS);
+        stopping = true;
+        closeSubscriptions();
+        report(measuredFrom);
+        executor.shutdownNow();
+        sseExecutor.shutdownNow();
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        JsonNode login = json(send(post("/api/v1/auth/login",
+            "{\"username\":\"loadtest\",\"password\":\"loadtest\",\"role\":\"OPERATOR\"}")));
+        bearer = "Bearer " + login.path("token").asText();
+
+        for (int i = 0; i < config.sites(); i++) {
+            String body = objectMapper.writeValueAsString(Map.of(
+                "name", "Load Test Pantry " + i,
+                "address", (100 + i) + " Congress Ave",
+                "city", "Austin",
+                "state", "TX",
+                "zip", String.valueOf(78701 + i % 40)));
+            siteIds.add(json(send(post("/api/v1/sites", body))).path("data").path("id").asLong());
+        }
+
+        StringBuilder rows = new StringBuilder();
+        for (Long siteId : siteIds) {
+            for (int i = 0; i < config.itemsPerSite(); i++) {
+                rows.append(objectMapper.writeValueAsString(Map.of(
+                    "siteId", siteId,
+                    "sku", "LT-" + i,
+                    "name", "Load test item " + i,
+                    "tags", i % 3 == 0 ? "canned,vegetables" : "dry-goods",
+                    "qty", 1000,
+                    "unit", "each",
+                    "reorderThreshold", 10))).append('\n');
+            }
+        }
+        if (rows.length() > 0) {
+            JsonNode report = json(send(request("/api/v1/inventory/import")
+                .header("Authorization", bearer)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(rows.toString()))
+                .build())).path("data");
+            if (report.path("failed").asInt() > 0) {
+                throw new IllegalStateException("Seeding failed: " + report.path("failed").asInt()
+                    + " inventory rows rejected, e.g. " + report.path("errors").path(0));
+            }
+        }
+        for (JsonNode item : json(send(request("/api/v1/inventory").GET().build()))) {
+            itemIds.add(item.path("id").asLong());
+        }
+    }
+
+    /**
+     * Starts a thread that hands {@code rate} requests per second to the executor until
+     * {@code endNanos}, each with the time it was scheduled for.
+     */
+    private Thread dispatch(String name, int rate, long endNanos, LongConsumer request) {
+        Thread thread = new Thread(() -> {
+            if (rate <= 0) {
+                return;
+            }
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long next = System.nanoTime();
+            while (next < endNanos) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduled = next;
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        request.accept(scheduled);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                next += interval;
+            }
+        }, "loadtest-dispatch-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void checkin(long scheduled) {
+        Long siteId = siteIds.get(ThreadLocalRandom.current().nextInt(siteIds.size()));
+        String body = "{\"siteId\":" + siteId + ",\"contactName\":\"Guest " + scheduled % 100000
+            + "\",\"contactPhone\":\"555-0100\"}";
+        HttpResponse<String> response = timed("checkin", scheduled, post("/api/v1/queue/tokens", body));
+        if (response != null && response.statusCode() == 200) {
+            String token = parse(response.body()).path("data").path("tokenNumber").asText(null);
+            if (token != null) {
+                waitingTokens.add(token);
+            }
+        }
+    }
+
+    private void callNext(long scheduled) {
+        String token = waitingTokens.poll();
+        if (token == null) {
+            operatorIdle.incrementAndGet();
+            return;
+        }
+        HttpResponse<String> called = timed("call", scheduled, status(token, "CALLED"));
+        if (called != null && called.statusCode() == 200) {
+            timed("complete", System.nanoTime(), status(token, "COMPLETED"));
+        }
+    }
+
+    private void adjust(long scheduled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long itemId = itemIds.get(random.nextInt(itemIds.size()));
+        int quantity = random.nextBoolean() ? 1 : -1;
+        timed("adjust", scheduled, request("/api/v1/inventory/" + itemId + "/adjust?quantity=" + quantity)
+            .header("Authorization", bearer)
+            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+            .build());
+    }
+
+    /**
+     * Dashboard polling: conditional GETs with the last ETag seen for each view, as a
+     * browser would send them.
+     */
+    private void poll(long scheduled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = random.nextInt(4) == 0
+            ? "/api/v1/status/" + siteIds.get(random.nextInt(siteIds.size()))
+            : POLL_PATHS[random.nextInt(POLL_PATHS.length)];
+        HttpRequest.Builder builder = request(path).header("Accept-Encoding", "gzip").GET();
+        String etag = etags.get(path);
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        HttpResponse<String> response = timed("poll", scheduled, builder.build());
+        if (response != null) {
+            response.headers().firstValue("ETag").ifPresent(tag -> etags.put(path, tag));
+        }
+    }
+
+    private void subscribe() {
+        long started = System.nanoTime();
+        HttpRequest request = request("/api/v1/events/stream").header("Accept", "text/event-stream").GET().build();
+        try {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            stats.get("sse.connect").record(started, response.statusCode());
+            synchronized (sseStreams) {
+                if (stopping) {
+                    response.body().close();
+                    return;
+                }
+                sseStreams.add(response.body());
+            }
+            sseConnected.incrementAndGet();
+            response.body().forEach(line -> {
+                if (line.startsWith("data:")) {
+                    received(line.substring(5));
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            if (!stopping) {
+                stats.get("sse.connect").error();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void received(String data) {
+        String timestamp = parse(data).path("timestamp").asText(null);
+        if (timestamp == null) {
+            return;
+        }
+        sseEvents.incrementAndGet();
+        Duration lag = Duration.between(LocalDateTime.parse(timestamp), LocalDateTime.now());
+        stats.get("sse.fanout").recordMicros(TimeUnit.NANOSECONDS.toMicros(lag.toNanos()));
+    }
+
+    private void closeSubscriptions() {
+        synchronized (sseStreams) {
+            for (Stream<String> stream : sseStreams) {
+                try {
+                    stream.close();
+                } catch (RuntimeException e) {
+                    // already broken
+                }
+            }
+            sseStreams.clear();
+        }
+    }
+
+    private void report(LocalDateTime measuredFrom) throws IOException {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((name, op) -> operations.put(name, op.summary(config.durationSeconds())));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("measuredFrom", measuredFrom.toString());
+        report.put("java", Runtime.version().toString());
+        report.put("threads", virtualThreads ? "virtual" : "pooled");
+        report.put("config", config.describe());
+        report.put("sseConnected", sseConnected.get());
+        report.put("sseEventsReceived", sseEvents.get());
+        report.put("operatorIdle", operatorIdle.get());
+        report.put("operations", operations);
+
+        Path dir = Path.of(config.reportDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve("report-" + measuredFrom.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+
+        System.out.printf("%n%-12s %9s %7s %9s %9s %9s %9s %9s%n",
+            "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((name, summary) -> {
+            Map<?, ?> s = (Map<?, ?>) summary;
+            System.out.printf("%-12s %9s %7s %9s %9s %9s %9s %9s%n", name, s.get("count"), s.get("errors"),
+                s.get("throughputPerSec"), s.get("p50Ms"), s.get("p99Ms"), s.get("p999Ms"), s.get("maxMs"));
+        });
+        System.out.println("\nReport written to " + file.toAbsolutePath());
+    }
+
+    private HttpRequest status(String token, String status) {
+        return request("/api/v1/queue/tokens/" + token + "/status?status=" + status)
+            .header("Authorization", bearer)
+            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+            .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        HttpRequest.Builder builder = request(path)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (bearer != null) {
+            builder.header("Authorization", bearer);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Sends a request and records its latency from {@code scheduled}; failures are
+     * recorded as errors and return {@code null}.
+     */
+    private HttpResponse<String> timed(String operation, long scheduled, HttpRequest request) {
+        OperationStats op = stats.get(operation);
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            op.record(scheduled, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            op.record(scheduled, 0);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Seeding failed: " + request.method() + " " + request.uri()
+                + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    private JsonNode json(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            return objectMapper.readTree(body);
+        }
+    }
+
+    private JsonNode parse(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} when running on Java 21+, looked
+     * up reflectively because the build targets Java 17; {@code null} otherwise.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
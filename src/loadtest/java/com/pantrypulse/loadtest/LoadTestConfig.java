@@ -0,0 +1,79 @@
+package com.pantrypulse.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Load-test settings, read from {@code loadtest.*} system properties (the Gradle task
+ * forwards {@code -Ploadtest.*}). Rates are requests per second across all workers;
+ * a rate of 0 turns that workload off.
+ */
+public record LoadTestConfig(
+    String baseUrl,
+    int durationSeconds,
+    int warmupSeconds,
+    int sites,
+    int itemsPerSite,
+    int checkinRate,
+    int operatorRate,
+    int adjustRate,
+    int pollRate,
+    int sseSubscribers,
+    int threads,
+    int maxInFlight,
+    boolean virtualThreads,
+    String reportDir
+) {
+
+    public static LoadTestConfig from(Properties props) {
+        return new LoadTestConfig(
+            props.getProperty("loadtest.base-url"),
+            intValue(props, "loadtest.duration-seconds", 60),
+            intValue(props, "loadtest.warmup-seconds", 10),
+            intValue(props, "loadtest.sites", 20),
+            intValue(props, "loadtest.items-per-site", 50),
+            intValue(props, "loadtest.checkin-rate", 200),
+            intValue(props, "loadtest.operator-rate", 50),
+            intValue(props, "loadtest.adjust-rate", 100),
+            intValue(props, "loadtest.poll-rate", 100),
+            intValue(props, "loadtest.sse-subscribers", 100),
+            intValue(props, "loadtest.threads", 64),
+            intValue(props, "loadtest.max-in-flight", 2000),
+            Boolean.parseBoolean(props.getProperty("loadtest.virtual-threads", "true")),
+            props.getProperty("loadtest.report-dir", "build/reports/loadtest")
+        );
+    }
+
+    /**
+     * Settings as written to the report, so runs are only compared like for like.
+     */
+    public Map<String, Object> describe() {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("target", baseUrl != null ? baseUrl : "embedded");
+        described.put("durationSeconds", durationSeconds);
+        described.put("warmupSeconds", warmupSeconds);
+        described.put("sites", sites);
+        described.put("itemsPerSite", itemsPerSite);
+        described.put("checkinRate", checkinRate);
+        described.put("operatorRate", operatorRate);
+        described.put("adjustRate", adjustRate);
+        described.put("pollRate", pollRate);
+        described.put("sseSubscribers", sseSubscribers);
+        described.put("threads", threads);
+        described.put("maxInFlight", maxInFlight);
+        return described;
+    }
+
+    private static int intValue(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be an integer: " + value);
+        }
+    }
+}
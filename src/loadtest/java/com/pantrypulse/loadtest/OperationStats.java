@@ -0,0 +1,80 @@
+package com.pantrypulse.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one kind of request. Latencies are in
+ * microseconds, measured from the time a request was scheduled to start, so queueing
+ * in the harness and coordinated omission show up in the figures.
+ */
+public final class OperationStats {
+
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_US, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void record(long scheduledNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos);
+        histogram.recordValue(Math.min(Math.max(micros, 0), MAX_LATENCY_US));
+        if (status == 304) {
+            notModified.increment();
+        } else if (status >= 400 || status == 0) {
+            errors.increment();
+        }
+    }
+
+    public void recordMicros(long micros) {
+        histogram.recordValue(Math.min(Math.max(micros, 0), MAX_LATENCY_US));
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    public void reset() {
+        histogram.reset();
+        errors.reset();
+        notModified.reset();
+    }
+
+    public Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = histogram.getTotalCount();
+        summary.put("count", count);
+        summary.put("errors", errors.sum());
+        summary.put("notModified", notModified.sum());
+        summary.put("throughputPerSec", round(count / seconds));
+        summary.put("meanMs", round(histogram.getMean() / 1000.0));
+        summary.put("p50Ms", millis(50));
+        summary.put("p90Ms", millis(90));
+        summary.put("p99Ms", millis(99));
+        summary.put("p999Ms", millis(99.9));
+        summary.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+        return summary;
+    }
+
+    private double millis(double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,219 @@
+package com.pantrypulse.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors behind {@code @Async} methods ({@code applicationTaskExecutor}, so Boot's
+ * own executor backs off) and MVC async requests ({@code mvcStreamingExecutor}). Streamed
+ * exports hold their thread for the whole download, so they get their own executor and
+ * cannot starve webhook fan-out, and vice versa.
+ * <p>
+ * {@code app.async.mode=platform} runs bounded pools: {@code core-size} threads, up to
+ * {@code queue-capacity} queued tasks, then growth to {@code max-size}, then
+ * {@code rejection} ({@code caller-runs}, {@code abort} or {@code discard}).
+ * {@code virtual} starts a virtual thread per task (Java 21+, otherwise the pools are used)
+ * with at most {@code max-size} running; further submitters wait for a slot.
+ * <p>
+ * Exports {@code pantrypulse.async.active}, {@code pantrypulse.async.queued} (pool queue,
+ * or submitters waiting for a virtual-thread slot) and {@code pantrypulse.async.rejected},
+ * tagged with {@code executor} ({@code async} or {@code streaming}); Boot adds its
+ * {@code executor.*} meters for the pools.
+ */
+@Configuration
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public enum Rejection { CALLER_RUNS, ABORT, DISCARD }
+
+    private record Sizing(int coreSize, int maxSize, int queueCapacity, Rejection rejection) { }
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String mode;
+    private final int keepAliveSeconds;
+    private final Sizing async;
+    private final Sizing streaming;
+
+    public AsyncConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${app.async.mode:platform}") String mode,
+                       @Value("${app.async.core-size:8}") int coreSize,
+                       @Value("${app.async.max-size:32}") int maxSize,
+                       @Value("${app.async.queue-capacity:1000}") int queueCapacity,
+                       @Value("${app.async.keep-alive-seconds:60}") int keepAliveSeconds,
+                       @Value("${app.async.rejection:caller-runs}") String rejection,
+                       @Value("${app.async.streaming.core-size:4}") int streamingCoreSize,
+                       @Value("${app.async.streaming.max-size:16}") int streamingMaxSize,
+                       @Value("${app.async.streaming.queue-capacity:100}") int streamingQueueCapacity,
+                       @Value("${app.async.streaming.rejection:caller-runs}") String streamingRejection) {
+        this.meterRegistry = meterRegistry;
+        this.mode = mode.trim().toLowerCase();
+        this.keepAliveSeconds = keepAliveSeconds;
+        this.async = new Sizing(coreSize, maxSize, queueCapacity, rejection(rejection));
+        this.streaming = new Sizing(streamingCoreSize, streamingMaxSize, streamingQueueCapacity,
+            rejection(streamingRejection));
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return executor("async", async);
+    }
+
+    @Bean
+    public AsyncTaskExecutor mvcStreamingExecutor() {
+        return executor("streaming", streaming);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return applicationTaskExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (e, method, params) ->
+            log.error("Async call {}.{} failed", method.getDeclaringClass().getSimpleName(), method.getName(), e);
+    }
+
+    private AsyncTaskExecutor executor(String name, Sizing sizing) {
+        AtomicInteger active = new AtomicInteger();
+        TaskDecorator tracking = task -> () -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("pantrypulse.async.active", active, AtomicInteger::get)
+                .tag("executor", name)
+                .description("Async tasks running")
+                .register(registry);
+        }
+        Counter rejected = registry == null ? null : Counter.builder("pantrypulse.async.rejected")
+            .tag("executor", name)
+            .tag("policy", policyName(sizing.rejection()))
+            .description("Async tasks that found the executor full")
+            .register(registry);
+
+        if ("virtual".equals(mode)) {
+            if (Runtime.version().feature() >= 21) {
+                ThrottledVirtualExecutor executor = new ThrottledVirtualExecutor(name + "-", rejected);
+                executor.setVirtualThreads(true);
+                executor.setConcurrencyLimit(sizing.maxSize());
+                executor.setTaskDecorator(tracking);
+                if (registry != null) {
+                    Gauge.builder("pantrypulse.async.queued", executor.waiting, AtomicInteger::get)
+                        .tag("executor", name)
+                        .description("Async tasks waiting for a thread or a virtual-thread slot")
+                        .register(registry);
+                }
+                log.info("{} tasks run on virtual threads, at most {} at a time", name, sizing.maxSize());
+                return executor;
+            }
+            log.warn("app.async.mode=virtual needs Java 21+, running on Java {}; using a platform pool for {}",
+                Runtime.version().feature(), name);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(sizing.coreSize());
+        executor.setMaxPoolSize(Math.max(sizing.coreSize(), sizing.maxSize()));
+        executor.setQueueCapacity(sizing.queueCapacity());
+        executor.setKeepAliveSeconds(keepAliveSeconds);
+        executor.setTaskDecorator(tracking);
+        executor.setRejectedExecutionHandler(counting(sizing.rejection(), rejected));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        if (registry != null) {
+            Gauge.builder("pantrypulse.async.queued", executor, AsyncConfig::queued)
+                .tag("executor", name)
+                .description("Async tasks waiting for a thread or a virtual-thread slot")
+                .register(registry);
+        }
+        return executor;
+    }
+
+    private static RejectedExecutionHandler counting(Rejection rejection, Counter rejected) {
+        RejectedExecutionHandler policy = switch (rejection) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+        };
+        if (rejected == null) {
+            return policy;
+        }
+        return (task, pool) -> {
+            rejected.increment();
+            policy.rejectedExecution(task, pool);
+        };
+    }
+
+    private static Rejection rejection(String value) {
+        return Rejection.valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+
+    private static String policyName(Rejection rejection) {
+        return rejection.name().toLowerCase().replace('_', '-');
+    }
+
+    private static double queued(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // not initialized yet, or already shut down
+            return 0;
+        }
+    }
+
+    /**
+     * Virtual-thread executor that counts submitters blocked on the concurrency limit and
+     * tasks it refuses (e.g. after shutdown).
+     */
+    private static final class ThrottledVirtualExecutor extends SimpleAsyncTaskExecutor {
+
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter rejected;
+
+        private ThrottledVirtualExecutor(String threadNamePrefix, Counter rejected) {
+            super(threadNamePrefix);
+            this.rejected = rejected;
+        }
+
+        // execute(Runnable) and submit(..) all funnel through here
+        @Override
+        @SuppressWarnings("deprecation")
+        public void execute(Runnable task, long startTimeout) {
+            waiting.incrementAndGet();
+            try {
+                super.execute(task, startTimeout);
+            } catch (TaskRejectedException e) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                throw e;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+    }
+}
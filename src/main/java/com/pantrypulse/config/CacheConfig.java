@@ -1,9 +1,8 @@
 package com.pantrypulse.config;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -14,16 +13,48 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    @Value("${app.cache.local.max-size:10000}")
+    private long localMaxSize;
+    
+    @Value("${app.cache.local.ttl:30s}")
+    private Duration localTtl;
+    
+    @Value("${app.cache.ttl.default:10m}")
+    private Duration defaultTtl;
+    
+    @Value("${app.cache.ttl.sites:10m}")
+    private Duration sitesTtl;
+    
+    @Value("${app.cache.ttl.inventory:1m}")
+    private Duration inventoryTtl;
+    
+    @Value("${app.cache.ttl.metrics:15s}")
+    private Duration metricsTtl;
+    
     @Bean
-    @ConditionalOnProperty(name = "spring.data.redis.host")
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(ObjectProvider<RedisConnectionFactory> redis,
+                                             @Value("${spring.data.redis.host:}") String redisHost) {
+        Map<String, Duration> ttls = Map.of(
+            "sites", sitesTtl,
+            "inventory", inventoryTtl,
+            "metrics", metricsTtl
+        );
+        // Redis is the shared level only when it is configured; otherwise caches stay local
+        RedisConnectionFactory connectionFactory = redisHost.isBlank() ? null : redis.getIfAvailable();
+        RedisCacheManager remote = connectionFactory != null ? redisCacheManager(connectionFactory, ttls) : null;
+        return new TwoLevelCacheManager(remote, localMaxSize, localTtl, ttls, defaultTtl);
+    }
+    
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, Map<String, Duration> ttls) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(10))
+            .entryTtl(defaultTtl)
             .serializeKeysWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
             )
@@ -34,15 +65,14 @@ public class CacheConfig {
             )
             .disableCachingNullValues();
         
-        return RedisCacheManager.builder(connectionFactory)
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>();
+        ttls.forEach((name, ttl) -> perCache.put(name, config.entryTtl(ttl)));
+        
+        RedisCacheManager manager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(config)
+            .withInitialCacheConfigurations(perCache)
             .build();
-    }
-    
-    @Bean
-    @ConditionalOnProperty(name = "spring.data.redis.host", matchIfMissing = true, havingValue = "false")
-    public CacheManager simpleCacheManager() {
-        // Fallback to simple in-memory cache when Redis is not configured
-        return new ConcurrentMapCacheManager("sites", "inventory", "metrics");
+        manager.afterPropertiesSet();
+        return manager;
     }
 }
@@ -0,0 +1,47 @@
+package com.pantrypulse.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Makes sure the unique indexes the upserts rely on ({@code ON CONFLICT}) exist, in every
+ * profile. schema.sql does not run in production, and Hibernate's schema update skips a
+ * unique constraint quietly when existing rows violate it.
+ * <p>
+ * Duplicate rows stop startup instead of being deleted: they have to be merged once with
+ * {@code db/dedupe-inventory-item-and-status.sql}.
+ */
+@Component
+@Slf4j
+public class RequiredIndexes {
+
+    private static final Map<String, String> INDEXES = Map.of(
+        "uq_inventory_item_site_sku", "CREATE UNIQUE INDEX IF NOT EXISTS uq_inventory_item_site_sku ON inventory_item (site_id, sku)",
+        "uq_status_site", "CREATE UNIQUE INDEX IF NOT EXISTS uq_status_site ON status (site_id)");
+
+    private final JdbcTemplate jdbc;
+
+    // the EntityManagerFactory is only a dependency: Hibernate has updated the schema once it exists
+    public RequiredIndexes(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void create() {
+        INDEXES.forEach((name, ddl) -> {
+            try {
+                jdbc.execute(ddl);
+            } catch (DataIntegrityViolationException e) {
+                throw new IllegalStateException("Cannot create unique index " + name + ": the table holds duplicate "
+                    + "rows. Merge them with db/dedupe-inventory-item-and-status.sql, then restart.", e);
+            }
+        });
+        log.debug("Unique indexes present: {}", INDEXES.keySet());
+    }
+}
@@ -51,7 +51,10 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/", "/index.html", "/error", "/favicon.ico",
                                          "/static/**", "/assets/**", "/css/**", "/js/**", "/images/**").permitAll()
-                        .requestMatchers("/api/v1/auth/**", "/actuator/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        .requestMatchers("/api/v1/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        // Probes stay public; metrics and prometheus expose internals, so admins only
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/**").permitAll()
                         // Everything else requires auth
                         .anyRequest().authenticated();
@@ -0,0 +1,64 @@
+package com.pantrypulse.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the beans in {@code com.pantrypulse.service} as
+ * {@code pantrypulse.service}, tagged with class, method and the exception thrown (or
+ * {@code none}).
+ * <p>
+ * Only calls that go through the Spring proxy are seen, so a service calling its own
+ * methods is timed once. Timers for successful calls are looked up once per method. The
+ * registry is resolved on first use, so creating the aspect does not pull the metrics
+ * infrastructure forward in startup.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private static final String METRIC = "pantrypulse.service";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.pantrypulse.service..*(..)) && within(com.pantrypulse.service..*)")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        long start = System.nanoTime();
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        try {
+            Object result = call.proceed();
+            timers.computeIfAbsent(method, m -> timer(call, "none")).record(System.nanoTime() - start,
+                TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(call, e.getClass().getSimpleName()).record(System.nanoTime() - start,
+                TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(ProceedingJoinPoint call, String exception) {
+        return Timer.builder(METRIC)
+            .description("Service method calls")
+            .tag("class", call.getSignature().getDeclaringType().getSimpleName())
+            .tag("method", call.getSignature().getName())
+            .tag("exception", exception)
+            .register(registry.getObject());
+    }
+}
@@ -0,0 +1,250 @@
+package com.pantrypulse.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches with a bounded in-process Caffeine level (L1) in front of an optional shared
+ * level (L2, Redis when configured).
+ * <p>
+ * Reads check L1, then L2, and copy L2 hits into L1. Writes and evictions go to both
+ * levels. Another instance's evictions only reach this instance's L1 through expiry, so
+ * L1 entries live for at most {@code localTtl} (or the cache's own TTL if shorter),
+ * unless a broadcast event clears them sooner ({@link #clearLocal}).
+ * Without an L2 the caches are purely local.
+ * <p>
+ * As a {@link MeterBinder} it publishes per-cache {@code cache.*} meters for each level
+ * ({@code level=local|remote}) and an overall {@code pantrypulse.cache.hit.ratio};
+ * caches created after binding are registered as they appear.
+ */
+public class TwoLevelCacheManager implements CacheManager, MeterBinder {
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final CacheManager remote;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private volatile MeterRegistry registry;
+
+    public TwoLevelCacheManager(CacheManager remote, long localMaxSize, Duration localTtl,
+                                Map<String, Duration> ttls, Duration defaultTtl) {
+        this.remote = remote;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.ttls = ttls;
+        this.defaultTtl = defaultTtl;
+        ttls.keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * Drops this instance's L1 entries of the cache, leaving L2 alone; for changes another
+     * instance has already evicted from L2.
+     */
+    public void clearLocal(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            cache.local.invalidateAll();
+        }
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        caches.values().forEach(cache -> cache.bindTo(registry));
+    }
+
+    /**
+     * Hit/miss counters per cache, for both levels.
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.values().stream()
+            .sorted(Comparator.comparing(TwoLevelCache::getName))
+            .forEach(cache -> stats.put(cache.getName(), cache.stats()));
+        return stats;
+    }
+
+    private TwoLevelCache create(String name) {
+        Duration ttl = ttls.getOrDefault(name, defaultTtl);
+        Duration local = ttl.compareTo(localTtl) < 0 ? ttl : localTtl;
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> l1 = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(local)
+            .recordStats()
+            .build();
+        TwoLevelCache cache = new TwoLevelCache(name, l1, remote != null ? remote.getCache(name) : null);
+        MeterRegistry bound = registry;
+        if (bound != null) {
+            cache.bindTo(bound);
+        }
+        return cache;
+    }
+
+    static final class TwoLevelCache extends AbstractValueAdaptingCache {
+
+        private final String name;
+        private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+        private final Cache remote;
+        private final AtomicLong remoteHits = new AtomicLong();
+        private final AtomicLong remoteMisses = new AtomicLong();
+
+        private TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote) {
+            // Nulls are kept locally only; the Redis level does not store them
+            super(true);
+            this.name = name;
+            this.local = local;
+            this.remote = remote;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local;
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            Object value = local.getIfPresent(key);
+            if (value != null) {
+                return value;
+            }
+            ValueWrapper shared = fromRemote(key);
+            if (shared == null) {
+                return null;
+            }
+            Object stored = toStoreValue(shared.get());
+            local.put(key, stored);
+            return stored;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            Object stored = local.get(key, k -> {
+                ValueWrapper shared = fromRemote(k);
+                if (shared != null) {
+                    return toStoreValue(shared.get());
+                }
+                Object loaded;
+                try {
+                    loaded = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(k, valueLoader, e);
+                }
+                if (remote != null && loaded != null) {
+                    remote.put(k, loaded);
+                }
+                return toStoreValue(loaded);
+            });
+            return (T) fromStoreValue(stored);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            local.put(key, toStoreValue(value));
+            if (remote != null && value != null) {
+                remote.put(key, value);
+            }
+        }
+
+        @Override
+        public void evict(Object key) {
+            local.invalidate(key);
+            if (remote != null) {
+                remote.evict(key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            local.invalidateAll();
+            if (remote != null) {
+                remote.clear();
+            }
+        }
+
+        private ValueWrapper fromRemote(Object key) {
+            if (remote == null) {
+                return null;
+            }
+            ValueWrapper shared = remote.get(key);
+            if (shared != null) {
+                remoteHits.incrementAndGet();
+            } else {
+                remoteMisses.incrementAndGet();
+            }
+            return shared;
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            CaffeineCacheMetrics.monitor(registry, local, name, "level", "local");
+            if (remote != null) {
+                FunctionCounter.builder("cache.gets", remoteHits, AtomicLong::get)
+                    .tags("cache", name, "level", "remote", "result", "hit")
+                    .description("Shared level lookups that found a value")
+                    .register(registry);
+                FunctionCounter.builder("cache.gets", remoteMisses, AtomicLong::get)
+                    .tags("cache", name, "level", "remote", "result", "miss")
+                    .description("Shared level lookups that found nothing")
+                    .register(registry);
+            }
+            Gauge.builder("pantrypulse.cache.hit.ratio", this, TwoLevelCache::hitRatio)
+                .tag("cache", name)
+                .description("Share of reads answered by either level")
+                .register(registry);
+        }
+
+        private double hitRatio() {
+            CacheStats l1 = local.stats();
+            long requests = l1.requestCount();
+            return requests > 0 ? (double) (l1.hitCount() + remoteHits.get()) / requests : Double.NaN;
+        }
+
+        private Map<String, Object> stats() {
+            CacheStats l1 = local.stats();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("localSize", local.estimatedSize());
+            stats.put("localHits", l1.hitCount());
+            stats.put("localMisses", l1.missCount());
+            stats.put("localHitRate", l1.hitRate());
+            stats.put("localEvictions", l1.evictionCount());
+            stats.put("remote", remote != null);
+            stats.put("remoteHits", remoteHits.get());
+            stats.put("remoteMisses", remoteMisses.get());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.pantrypulse.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON responses cached per resource version.
+ * <p>
+ * A response is rendered once per version; its plain and gzip bytes (compressed on first
+ * demand) are reused until the version moves. Each representation has its own strong
+ * ETag, and a matching {@code If-None-Match} is answered with 304 before anything is
+ * rendered. At most {@code max-entries} keys are kept; the least recently used go first.
+ */
+@Component
+public class VersionedResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries;
+
+    public VersionedResponseCache(ObjectMapper objectMapper,
+                                  @Value("${app.cache.responses.max-entries:1000}") long maxEntries) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    /**
+     * Answers a GET for {@code key} at {@code version}, rendering {@code body} only when no
+     * bytes for that version are cached yet.
+     */
+    public ResponseEntity<byte[]> respond(String key, long version, String ifNoneMatch, String acceptEncoding,
+                                          Supplier<?> body) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.version != version) {
+            if (matches(ifNoneMatch, etag(key, version, false)) || matches(ifNoneMatch, etag(key, version, true))) {
+                return notModified(etag(key, version, gzip));
+            }
+            entry = new Entry(version, etag(key, version, false), etag(key, version, true), render(body.get()));
+            entries.put(key, entry);
+        }
+        String etag = gzip ? entry.gzipEtag : entry.etag;
+        if (matches(ifNoneMatch, entry.etag) || matches(ifNoneMatch, entry.gzipEtag)) {
+            return notModified(etag);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+        }
+        return response.body(entry.raw);
+    }
+
+    public void evict(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} lists gzip with a non-zero quality, e.g. not
+     * {@code gzip;q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        return Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String etag(String key, long version, boolean gzip) {
+        return "\"" + key + "-" + version + (gzip ? "-gz" : "") + "\"";
+    }
+
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private byte[] render(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render response", e);
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final String etag;
+        private final String gzipEtag;
+        private final byte[] raw;
+        private volatile byte[] gzip;
+
+        private Entry(long version, String etag, String gzipEtag, byte[] raw) {
+            this.version = version;
+            this.etag = etag;
+            this.gzipEtag = gzipEtag;
+            this.raw = raw;
+        }
+
+        private byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+                try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+                    zip.write(raw);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compressed = out.toByteArray();
+                gzip = compressed;
+            }
+            return compressed;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.pantrypulse.controller;
 
+import com.pantrypulse.dto.CursorPage;
 import com.pantrypulse.model.ApiResponse;
 import com.pantrypulse.model.AuditLog;
 import com.pantrypulse.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/admin/audit")
@@ -22,6 +30,30 @@ public class AdminController {
         return ApiResponse.success(auditService.getAllLogs(pageable), "Audit logs retrieved");
     }
     
+    @GetMapping("/cursor")
+    public ApiResponse<CursorPage<AuditLog>> getAuditLogsPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success(auditService.getLogsPage(from, to, before, limit), "Audit logs retrieved");
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> auditService.exportLogs(from, to, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
+    @GetMapping("/pipeline")
+    public ApiResponse<Map<String, Object>> getAuditPipelineStats() {
+        return ApiResponse.success(auditService.getPipelineStats(), "Audit pipeline stats retrieved");
+    }
+    
     @GetMapping("/user/{username}")
     public ApiResponse<Page<AuditLog>> getAuditLogsByUser(
             @PathVariable String username, 
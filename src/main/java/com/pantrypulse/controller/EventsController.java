@@ -1,16 +1,22 @@
 package com.pantrypulse.controller;
 
+import com.pantrypulse.dto.EventFilter;
 import com.pantrypulse.model.SystemEvent;
 import com.pantrypulse.service.EventService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/events")
@@ -20,20 +26,47 @@ public class EventsController {
     private final EventService eventService;
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<SystemEvent>> streamEvents() {
-        return eventService.getEventStream()
+    public Flux<ServerSentEvent<SystemEvent>> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) List<Long> siteId,
+            @RequestParam(required = false) List<String> type,
+            @RequestParam(required = false) List<String> entity) {
+        EventFilter filter = new EventFilter(toSet(siteId), toSet(type), toSet(entity));
+        return eventService.getEventStream(parseEventId(lastEventId), filter)
                 .map(event -> ServerSentEvent.<SystemEvent>builder()
-                        .id(event.getTimestamp().toString())
+                        .id(String.valueOf(event.getSequence()))
                         .event(event.getEventType())
                         .data(event)
                         .build())
-                .mergeWith(
-                    // Send heartbeat every 30 seconds to keep connection alive
+                .publish(events -> events.mergeWith(
+                    // Send heartbeat every 30 seconds to keep connection alive, until the stream ends
                     Flux.interval(Duration.ofSeconds(30))
                         .map(seq -> ServerSentEvent.<SystemEvent>builder()
                                 .event("heartbeat")
                                 .comment("keepalive")
                                 .build())
-                );
+                        .takeUntilOther(events.then())
+                ));
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> streamStats() {
+        return eventService.streamStats();
+    }
+    
+    private static <T> Set<T> toSet(List<T> values) {
+        return values == null ? Set.of() : Set.copyOf(values);
+    }
+    
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // Ids from before sequence numbering (timestamps) can't be resumed; force a resync
+            return -1L;
+        }
     }
 }
@@ -1,34 +1,105 @@
 package com.pantrypulse.controller;
 
+import com.pantrypulse.config.VersionedResponseCache;
+import com.pantrypulse.dto.CursorPage;
+import com.pantrypulse.dto.ImportReport;
+import com.pantrypulse.model.ApiResponse;
 import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.service.InventoryImportService;
 import com.pantrypulse.service.InventoryService;
+import com.pantrypulse.service.ResourceVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
     private final InventoryService service;
+    private final InventoryImportService importService;
+    private final ResourceVersions versions;
+    private final VersionedResponseCache responses;
 
     @GetMapping
-    public List<InventoryItem> all(){ return service.all(); }
+    public ResponseEntity<byte[]> all(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responses.respond("inventory", versions.current(ResourceVersions.INVENTORY), ifNoneMatch,
+            acceptEncoding, service::all);
+    }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
     public InventoryItem create(@RequestBody InventoryItem i){ return service.save(i); }
     
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public ApiResponse<ImportReport> importCsv(InputStream body) throws IOException {
+        return imported(importService.importInventory(body, InventoryImportService.Format.CSV));
+    }
+    
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public ApiResponse<ImportReport> importNdjson(InputStream body) throws IOException {
+        return imported(importService.importInventory(body, InventoryImportService.Format.NDJSON));
+    }
+    
     @PatchMapping("/{id}/adjust")
     @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
     public InventoryItem adjust(@PathVariable Long id, @RequestParam Integer quantity) {
         return service.adjustQuantity(id, quantity);
     }
     
+    @PatchMapping("/{id}/reorder-threshold")
+    @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
+    public InventoryItem setReorderThreshold(@PathVariable Long id, @RequestParam(required = false) Integer threshold) {
+        return service.setReorderThreshold(id, threshold);
+    }
+    
+    @GetMapping("/tags/search")
+    public List<InventoryItem> searchByTags(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "100") int limit) {
+        return service.findByTags(siteId, all, any, inStock, limit);
+    }
+    
+    @GetMapping("/tags/facets")
+    public Map<String, Integer> tagFacets(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "false") boolean inStock) {
+        return service.tagFacets(siteId, tags, inStock);
+    }
+    
     @GetMapping("/low-stock")
-    public List<InventoryItem> lowStock(@RequestParam(defaultValue = "10") Integer threshold) {
-        return service.findLowStock(threshold);
+    public List<InventoryItem> lowStock(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Integer threshold) {
+        return service.findLowStock(siteId, threshold);
+    }
+    
+    @GetMapping("/low-stock/feed")
+    public CursorPage<InventoryItem> lowStockFeed(
+            @RequestParam(required = false) Long siteId,
+            @RequestParam(required = false) Integer threshold,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return service.lowStockFeed(siteId, threshold, after, limit);
+    }
+    
+    private ApiResponse<ImportReport> imported(ImportReport report) {
+        return ApiResponse.success(report,
+            String.format("Imported %d of %d rows", report.upserted(), report.rows()));
     }
 }
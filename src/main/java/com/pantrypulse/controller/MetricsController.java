@@ -1,15 +1,18 @@
 package com.pantrypulse.controller;
 
-import com.pantrypulse.repository.InventoryRepository;
-import com.pantrypulse.repository.QueueTokenRepository;
-import com.pantrypulse.repository.SiteRepository;
+import com.pantrypulse.config.TwoLevelCacheManager;
+import com.pantrypulse.config.VersionedResponseCache;
+import com.pantrypulse.service.MetricsAggregator;
+import com.pantrypulse.service.ResourceVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -17,70 +20,42 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class MetricsController {
     
-    private final SiteRepository siteRepo;
-    private final InventoryRepository inventoryRepo;
-    private final QueueTokenRepository queueRepo;
+    private final MetricsAggregator metrics;
+    private final TwoLevelCacheManager cacheManager;
+    private final ResourceVersions versions;
+    private final VersionedResponseCache responses;
 
     @GetMapping
-    public Map<String, Object> getGlobalMetrics() {
-        long totalSites = siteRepo.count();
-        long lowStockItems = inventoryRepo.countLowStock();
-        long totalQueueTokens = queueRepo.count();
-        long waitingTokens = queueRepo.findAll().stream()
-            .filter(t -> t.getStatus() == com.pantrypulse.model.QueueToken.TokenStatus.WAITING)
-            .count();
-        
-        return Map.of(
-            "totalSites", totalSites,
-            "lowStockItems", lowStockItems,
-            "totalInventoryItems", inventoryRepo.count(),
-            "totalQueueTokens", totalQueueTokens,
-            "waitingQueueTokens", waitingTokens,
-            "avgQueueLength", waitingTokens > 0 ? (double) waitingTokens / totalSites : 0.0
-        );
+    public ResponseEntity<byte[]> getGlobalMetrics(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responses.respond("metrics", versions.current(ResourceVersions.METRICS), ifNoneMatch,
+            acceptEncoding, metrics::globalMetrics);
     }
     
     @GetMapping("/site/{siteId}")
-    public Map<String, Object> getSiteMetrics(@PathVariable Long siteId) {
-        var site = siteRepo.findById(siteId)
-            .orElseThrow(() -> new IllegalArgumentException("Site not found: " + siteId));
-        
-        long siteInventoryCount = inventoryRepo.findAll().stream()
-            .filter(item -> item.getSite().getId().equals(siteId))
-            .count();
-        
-        long siteLowStockCount = inventoryRepo.findAll().stream()
-            .filter(item -> item.getSite().getId().equals(siteId) && item.getQty() < 10)
-            .count();
-        
-        long siteQueueCount = queueRepo.findBySiteIdOrderByCreatedAtDesc(siteId).size();
-        
-        long siteWaitingCount = queueRepo.findBySiteIdOrderByCreatedAtDesc(siteId).stream()
-            .filter(t -> t.getStatus() == com.pantrypulse.model.QueueToken.TokenStatus.WAITING)
-            .count();
-        
-        return Map.of(
-            "siteId", siteId,
-            "siteName", site.getName(),
-            "inventoryItemCount", siteInventoryCount,
-            "lowStockItemCount", siteLowStockCount,
-            "totalQueueTokens", siteQueueCount,
-            "waitingQueueTokens", siteWaitingCount
-        );
+    public ResponseEntity<byte[]> getSiteMetrics(
+            @PathVariable Long siteId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // only known sites get a cache key, so arbitrary ids cannot grow the response cache
+        if (!metrics.hasSite(siteId)) {
+            throw new IllegalArgumentException("Site not found: " + siteId);
+        }
+        return responses.respond("metrics-site-" + siteId, versions.current(ResourceVersions.METRICS),
+            ifNoneMatch, acceptEncoding, () -> metrics.siteMetrics(siteId));
     }
     
     @GetMapping("/by-city")
-    public Map<String, Map<String, Object>> getMetricsByCity() {
-        Map<String, Map<String, Object>> cityMetrics = new HashMap<>();
-        
-        siteRepo.findAll().forEach(site -> {
-            String city = site.getCity();
-            cityMetrics.putIfAbsent(city, new HashMap<>());
-            Map<String, Object> metrics = cityMetrics.get(city);
-            
-            metrics.put("siteCount", ((Number) metrics.getOrDefault("siteCount", 0)).intValue() + 1);
-        });
-        
-        return cityMetrics;
+    public ResponseEntity<byte[]> getMetricsByCity(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responses.respond("metrics-city", versions.current(ResourceVersions.METRICS), ifNoneMatch,
+            acceptEncoding, metrics::cityMetrics);
+    }
+    
+    @GetMapping("/cache")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return cacheManager.stats();
     }
 }
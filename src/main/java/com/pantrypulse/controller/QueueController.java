@@ -1,5 +1,6 @@
 package com.pantrypulse.controller;
 
+import com.pantrypulse.dto.CursorPage;
 import com.pantrypulse.model.ApiResponse;
 import com.pantrypulse.model.QueueToken;
 import com.pantrypulse.service.QueueService;
@@ -8,8 +9,11 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -38,6 +42,14 @@ public class QueueController {
         );
     }
     
+    @GetMapping("/tokens/{tokenNumber}/position")
+    public ApiResponse<Integer> getTokenPosition(@PathVariable String tokenNumber) {
+        return ApiResponse.success(
+            queueService.getQueuePosition(tokenNumber),
+            "Queue position retrieved"
+        );
+    }
+    
     @PatchMapping("/tokens/{tokenNumber}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
     public ApiResponse<QueueToken> updateTokenStatus(
@@ -57,6 +69,14 @@ public class QueueController {
         );
     }
     
+    @GetMapping("/sites/{siteId}/estimate")
+    public ApiResponse<java.util.Map<String, Object>> getServiceEstimate(@PathVariable Long siteId) {
+        return ApiResponse.success(
+            queueService.getServiceEstimate(siteId),
+            "Service estimate retrieved"
+        );
+    }
+    
     @GetMapping("/sites/{siteId}/tokens")
     public ApiResponse<List<QueueToken>> getAllTokensForSite(@PathVariable Long siteId) {
         return ApiResponse.success(
@@ -65,6 +85,25 @@ public class QueueController {
         );
     }
     
+    @GetMapping("/sites/{siteId}/tokens/page")
+    public ApiResponse<CursorPage<QueueToken>> getTokenHistoryPage(
+            @PathVariable Long siteId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success(
+            queueService.getTokenHistory(siteId, before, limit),
+            "Site tokens retrieved"
+        );
+    }
+    
+    @GetMapping("/sites/{siteId}/tokens/export")
+    public ResponseEntity<StreamingResponseBody> exportTokens(@PathVariable Long siteId) {
+        StreamingResponseBody body = out -> queueService.exportTokens(siteId, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
     @Data
     public static class CreateTokenRequest {
         @NotNull(message = "Site ID is required")
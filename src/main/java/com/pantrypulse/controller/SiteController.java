@@ -1,13 +1,17 @@
 package com.pantrypulse.controller;
 
+import com.pantrypulse.config.VersionedResponseCache;
+import com.pantrypulse.dto.NearbySite;
 import com.pantrypulse.dto.SiteRequest;
 import com.pantrypulse.model.ApiResponse;
 import com.pantrypulse.model.Site;
+import com.pantrypulse.service.ResourceVersions;
 import com.pantrypulse.service.SiteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -19,10 +23,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SiteController {
     private final SiteService service;
+    private final ResourceVersions versions;
+    private final VersionedResponseCache responses;
 
     @GetMapping
-    public ApiResponse<List<Site>> all(){ 
-        return ApiResponse.success(service.getAllSites(), "Fetched successfully");
+    public ResponseEntity<byte[]> all(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responses.respond("sites", versions.current(ResourceVersions.SITES), ifNoneMatch, acceptEncoding,
+            () -> ApiResponse.success(service.getAllSites(), "Fetched successfully"));
     }
     
     @GetMapping("/search")
@@ -36,6 +45,39 @@ public class SiteController {
         );
     }
 
+    @GetMapping("/search/text")
+    public ApiResponse<List<Site>> searchText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(service.searchText(q, limit), "Sites fetched successfully");
+    }
+    
+    @GetMapping("/autocomplete")
+    public ApiResponse<List<Site>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.success(service.autocomplete(prefix, limit), "Sites fetched successfully");
+    }
+
+    /**
+     * Sites nearest to a point, or to a ZIP centroid when {@code zip} is given instead of
+     * coordinates. With {@code radiusKm} every site in range is returned (up to {@code k}).
+     */
+    @GetMapping("/nearby")
+    public ApiResponse<List<NearbySite>> nearby(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) String zip,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "false") boolean rankByQueue,
+            @RequestParam(defaultValue = "true") boolean openOnly) {
+        return ApiResponse.success(
+            service.nearby(lat, lon, zip, k, radiusKm, rankByQueue, openOnly),
+            "Sites fetched successfully"
+        );
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Site>> one(@PathVariable Long id){
         return service.getSiteById(id)
@@ -46,7 +88,8 @@ public class SiteController {
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
     public ApiResponse<Site> create(@Valid @RequestBody SiteRequest req){ 
-        Site site = new Site(null, req.name(), req.address(), req.city(), req.state(), req.zip());
+        Site site = new Site(null, req.name(), req.address(), req.city(), req.state(), req.zip(),
+            req.latitude(), req.longitude());
         return ApiResponse.success(service.saveSite(site), "Site created successfully");
     }
     
@@ -55,7 +98,8 @@ public class SiteController {
     public ResponseEntity<ApiResponse<Site>> update(@PathVariable Long id, @Valid @RequestBody SiteRequest req) {
         return service.getSiteById(id)
             .map(existing -> {
-                Site updated = new Site(id, req.name(), req.address(), req.city(), req.state(), req.zip());
+                Site updated = new Site(id, req.name(), req.address(), req.city(), req.state(), req.zip(),
+                    req.latitude(), req.longitude());
                 return ResponseEntity.ok(ApiResponse.success(service.saveSite(updated), "Site updated"));
             })
             .orElse(ResponseEntity.notFound().build());
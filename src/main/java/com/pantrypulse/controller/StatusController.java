@@ -1,21 +1,75 @@
 package com.pantrypulse.controller;
 
 import com.pantrypulse.model.Status;
+import com.pantrypulse.service.StatusProjection;
 import com.pantrypulse.service.StatusService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
+/**
+ * Live site status from {@link StatusProjection}. Responses carry a version ETag; a poll
+ * with a matching {@code If-None-Match} gets 304 without rendering anything.
+ */
 @RestController
 @RequestMapping("/api/v1/status")
 @RequiredArgsConstructor
 public class StatusController {
     private final StatusService service;
+    private final StatusProjection projection;
 
     @GetMapping
-    public List<Status> all(){ return service.all(); }
+    public ResponseEntity<byte[]> all(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (matches(ifNoneMatch, projection.etag())) {
+            return notModified(projection.etag());
+        }
+        return ok(projection.renderAll());
+    }
+    
+    @GetMapping("/{siteId}")
+    public ResponseEntity<byte[]> one(@PathVariable Long siteId,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = projection.etag(siteId);
+        if (etag == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        StatusProjection.Rendered rendered = projection.renderSite(siteId);
+        return rendered != null ? ok(rendered) : ResponseEntity.notFound().build();
+    }
 
     @PostMapping
     public Status create(@RequestBody Status s){ return service.save(s); }
+    
+    private static ResponseEntity<byte[]> ok(StatusProjection.Rendered rendered) {
+        return ResponseEntity.ok()
+            .eTag(rendered.etag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(rendered.body());
+    }
+    
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
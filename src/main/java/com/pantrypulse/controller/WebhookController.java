@@ -2,16 +2,20 @@ package com.pantrypulse.controller;
 
 import com.pantrypulse.model.ApiResponse;
 import com.pantrypulse.model.Webhook;
+import com.pantrypulse.model.WebhookDeadLetter;
 import com.pantrypulse.service.WebhookService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/webhooks")
@@ -39,6 +43,22 @@ public class WebhookController {
         );
     }
     
+    @GetMapping("/dead-letters")
+    public ApiResponse<Page<WebhookDeadLetter>> getDeadLetters(Pageable pageable) {
+        return ApiResponse.success(
+            webhookService.getDeadLetters(pageable),
+            "Dead letters retrieved successfully"
+        );
+    }
+    
+    @GetMapping("/stats")
+    public ApiResponse<Map<String, Object>> getDeliveryStats() {
+        return ApiResponse.success(
+            webhookService.getDeliveryStats(),
+            "Delivery stats retrieved successfully"
+        );
+    }
+    
     @PatchMapping("/{id}")
     public ApiResponse<Webhook> updateWebhook(
             @PathVariable Long id,
@@ -0,0 +1,48 @@
+package com.pantrypulse.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token holding
+ * the sort key of the last item, or {@code null} on the last page.
+ */
+public record CursorPage<T>(
+    List<T> items,
+    String nextCursor
+) {
+    
+    public static <T> CursorPage<T> of(List<T> items, int limit, java.util.function.Function<T, String> cursorOf) {
+        String next = items.size() < limit || items.isEmpty() ? null : cursorOf.apply(items.get(items.size() - 1));
+        return new CursorPage<>(items, next);
+    }
+    
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append('|');
+            }
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Splits a cursor back into its parts; throws {@link IllegalArgumentException} for
+     * anything that was not produced by {@link #encode}.
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pantrypulse.dto;
+
+import com.pantrypulse.model.SystemEvent;
+
+import java.util.Set;
+
+/**
+ * Server-side filter for an SSE subscription. Empty sets match everything; event
+ * types ending in {@code .*} match by prefix (for example {@code queue.*}).
+ */
+public record EventFilter(
+    Set<Long> siteIds,
+    Set<String> eventTypes,
+    Set<String> entities
+) {
+    
+    public static final EventFilter ALL = new EventFilter(Set.of(), Set.of(), Set.of());
+    
+    public boolean matches(SystemEvent event) {
+        if (event.getEventType() != null && event.getEventType().startsWith("stream.")) {
+            return true;
+        }
+        if (!siteIds.isEmpty() && (event.getSiteId() == null || !siteIds.contains(event.getSiteId()))) {
+            return false;
+        }
+        if (!entities.isEmpty() && (event.getEntity() == null || !entities.contains(event.getEntity()))) {
+            return false;
+        }
+        return eventTypes.isEmpty() || eventTypes.stream().anyMatch(type -> type.endsWith(".*")
+            ? event.getEventType().startsWith(type.substring(0, type.length() - 1))
+            : type.equals(event.getEventType()));
+    }
+}
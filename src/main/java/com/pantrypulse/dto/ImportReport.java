@@ -0,0 +1,21 @@
+package com.pantrypulse.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk inventory import. {@code row} numbers count data rows from 1
+ * (the CSV header is not a row). At most a fixed number of errors are listed;
+ * {@code failed} always has the full count.
+ */
+public record ImportReport(
+    int rows,
+    int upserted,
+    int failed,
+    Map<Long, Integer> upsertedBySite,
+    List<RowError> errors,
+    boolean errorsTruncated
+) {
+
+    public record RowError(int row, String sku, String message) {}
+}
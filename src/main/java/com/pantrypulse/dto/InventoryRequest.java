@@ -21,5 +21,8 @@ public record InventoryRequest(
     Integer qty,
     
     @NotBlank(message = "Unit is required")
-    String unit
+    String unit,
+    
+    @Min(value = 0, message = "Reorder threshold cannot be negative")
+    Integer reorderThreshold
 ) {}
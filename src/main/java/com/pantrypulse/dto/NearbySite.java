@@ -0,0 +1,9 @@
+package com.pantrypulse.dto;
+
+import com.pantrypulse.model.Site;
+
+public record NearbySite(
+    Site site,
+    double distanceKm,
+    int waitingTokens
+) {}
@@ -1,5 +1,7 @@
 package com.pantrypulse.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
@@ -18,5 +20,14 @@ public record SiteRequest(
     String state,
     
     @Pattern(regexp = "^\\d{5}(-\\d{4})?$", message = "Invalid ZIP code format")
-    String zip
+    String zip,
+    
+    // Optional; when omitted the site is placed at its ZIP centroid
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    Double latitude,
+    
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    Double longitude
 ) {}
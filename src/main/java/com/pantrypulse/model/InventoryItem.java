@@ -4,8 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uq_inventory_item_site_sku", columnNames = {"site_id", "sku"}))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class InventoryItem {
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+    
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     @ManyToOne
@@ -15,4 +18,9 @@ public class InventoryItem {
     private String tags; // comma-separated for starter
     private Integer qty;
     private String unit;
+    private Integer reorderThreshold; // per site + SKU; null means the default
+    
+    public int lowStockThreshold() {
+        return reorderThreshold != null ? reorderThreshold : DEFAULT_LOW_STOCK_THRESHOLD;
+    }
 }
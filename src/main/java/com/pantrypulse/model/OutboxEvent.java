@@ -0,0 +1,38 @@
+package com.pantrypulse.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A {@link SystemEvent} written in the transaction that caused it. Rows are inserted,
+ * tailed and claimed with JDBC by the {@code EventOutbox}; {@code publishedAt} stays null
+ * until one instance has claimed the row for webhook delivery.
+ */
+@Entity
+@Table(name = "event_outbox")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    @Column(length = 100)
+    private String entity;
+
+    private Long entityId;
+
+    private Long siteId;
+
+    @Column(columnDefinition = "TEXT")
+    private String data;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+}
@@ -13,4 +13,6 @@ public class Site {
     private String city;
     private String state;
     private String zip;
+    private Double latitude;
+    private Double longitude;
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uq_status_site", columnNames = "site_id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Status {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,21 +14,28 @@ import java.util.Map;
 @AllArgsConstructor
 public class SystemEvent {
     
+    private Long sequence;
     private String eventType;
     private String entity;
     private Long entityId;
+    private Long siteId;
     private Map<String, Object> data;
     private LocalDateTime timestamp;
     
     public enum EventType {
         INVENTORY_LOW("inventory.low"),
         INVENTORY_UPDATED("inventory.updated"),
+        INVENTORY_IMPORTED("inventory.imported"),
         SITE_CREATED("site.created"),
         SITE_UPDATED("site.updated"),
         SITE_CLOSED("site.closed"),
         QUEUE_TOKEN_CREATED("queue.token.created"),
         QUEUE_TOKEN_CALLED("queue.token.called"),
-        QUEUE_TOKEN_COMPLETED("queue.token.completed");
+        QUEUE_TOKEN_COMPLETED("queue.token.completed"),
+        QUEUE_TOKEN_CANCELLED("queue.token.cancelled"),
+        STREAM_RESYNC("stream.resync"),
+        STREAM_DROPPED("stream.dropped"),
+        STREAM_DISCONNECT("stream.disconnect");
         
         private final String value;
         
@@ -0,0 +1,21 @@
+package com.pantrypulse.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest token number reserved so far for one site on one day. Application
+ * instances reserve blocks of numbers by bumping {@code reserved}.
+ */
+@Entity
+@Table(name = "token_sequence")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TokenSequence {
+
+    @Id
+    @Column(length = 64)
+    private String seqKey;
+
+    @Column(nullable = false)
+    private Long reserved;
+}
@@ -0,0 +1,40 @@
+package com.pantrypulse.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "webhook_dead_letter")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WebhookDeadLetter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private Long webhookId;
+    
+    @Column(nullable = false, length = 500)
+    private String url;
+    
+    private String eventType;
+    
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+    
+    private Integer attempts;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (failedAt == null) {
+            failedAt = LocalDateTime.now();
+        }
+    }
+}
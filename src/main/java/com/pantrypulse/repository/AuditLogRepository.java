@@ -1,12 +1,18 @@
 package com.pantrypulse.repository;
 
 import com.pantrypulse.model.AuditLog;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
@@ -14,8 +20,20 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     
     Page<AuditLog> findByEntityOrderByTimestampDesc(String entity, Pageable pageable);
     
-    List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(
-        LocalDateTime start, 
-        LocalDateTime end
+    // Keyset page within [from, to), newest first, strictly before (timestamp, id)
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to " +
+           "AND (a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id)) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findBetweenBefore(
+        LocalDateTime from,
+        LocalDateTime to,
+        LocalDateTime timestamp,
+        Long id,
+        Pageable limit
     );
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    Stream<AuditLog> streamBetween(LocalDateTime from, LocalDateTime to);
 }
@@ -1,11 +1,54 @@
 package com.pantrypulse.repository;
 import com.pantrypulse.model.InventoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 public interface InventoryRepository extends JpaRepository<InventoryItem, Long> {
     
-    @Query("SELECT COUNT(i) FROM InventoryItem i WHERE i.qty < 10")
-    long countLowStock();
+    boolean existsBySiteIdAndSku(Long siteId, String sku);
+    
+    @Query("SELECT COUNT(i) FROM InventoryItem i WHERE i.qty < COALESCE(i.reorderThreshold, :defaultThreshold)")
+    long countLowStock(int defaultThreshold);
+    
+    @Query("SELECT i.id, s.id, i.qty, i.reorderThreshold FROM InventoryItem i LEFT JOIN i.site s")
+    List<Object[]> findItemQuantities();
+    
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE InventoryItem i SET i.reorderThreshold = :threshold WHERE i.id = :id")
+    int updateReorderThreshold(Long id, Integer threshold);
+    
+    @Query("SELECT i.id, s.id, i.tags, i.qty FROM InventoryItem i JOIN i.site s")
+    List<Object[]> findItemTags();
+    
+    @Query("SELECT i.id, s.id, i.tags, i.qty FROM InventoryItem i JOIN i.site s WHERE s.id = :siteId")
+    List<Object[]> findItemTagsBySite(Long siteId);
+    
+    @Query("SELECT MAX(i.reorderThreshold) FROM InventoryItem i")
+    Integer findMaxReorderThreshold();
+    
+    @Query("SELECT MAX(i.reorderThreshold) FROM InventoryItem i WHERE i.site.id = :siteId")
+    Integer findMaxReorderThresholdBySite(Long siteId);
+    
+    // Low-stock feeds are ordered by (qty, id) so the (site_id, qty) index serves both the
+    // range and the order. qty < :ceiling bounds the scan; with perItem the item's own
+    // threshold (or the default) applies below that ceiling.
+    @Query("SELECT i FROM InventoryItem i WHERE i.site.id = :siteId AND i.qty < :ceiling " +
+           "AND (:perItem = false OR i.qty < COALESCE(i.reorderThreshold, :defaultThreshold)) " +
+           "AND (i.qty > :afterQty OR (i.qty = :afterQty AND i.id > :afterId)) " +
+           "ORDER BY i.qty, i.id")
+    List<InventoryItem> findLowStockBySite(Long siteId, int ceiling, boolean perItem, int defaultThreshold,
+                                           int afterQty, long afterId, Pageable limit);
+    
+    @Query("SELECT i FROM InventoryItem i WHERE i.qty < :ceiling " +
+           "AND (:perItem = false OR i.qty < COALESCE(i.reorderThreshold, :defaultThreshold)) " +
+           "AND (i.qty > :afterQty OR (i.qty = :afterQty AND i.id > :afterId)) " +
+           "ORDER BY i.qty, i.id")
+    List<InventoryItem> findLowStock(int ceiling, boolean perItem, int defaultThreshold,
+                                     int afterQty, long afterId, Pageable limit);
 }
-
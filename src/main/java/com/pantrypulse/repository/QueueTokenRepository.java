@@ -2,11 +2,19 @@ package com.pantrypulse.repository;
 
 import com.pantrypulse.model.QueueToken;
 import com.pantrypulse.model.Site;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface QueueTokenRepository extends JpaRepository<QueueToken, Long> {
     
@@ -17,9 +25,24 @@ public interface QueueTokenRepository extends JpaRepository<QueueToken, Long> {
         QueueToken.TokenStatus status
     );
     
+    List<QueueToken> findByStatusInOrderByCreatedAtAsc(Collection<QueueToken.TokenStatus> statuses);
+    
     @Query("SELECT COUNT(q) FROM QueueToken q WHERE q.site = :site AND q.status = 'WAITING'")
     long countWaitingBySite(Site site);
     
+    @Query("SELECT q.site.id, COUNT(q) FROM QueueToken q GROUP BY q.site.id")
+    List<Object[]> countTokensBySite();
+    
     @Query("SELECT q FROM QueueToken q WHERE q.site.id = :siteId ORDER BY q.createdAt DESC")
     List<QueueToken> findBySiteIdOrderByCreatedAtDesc(Long siteId);
+    
+    // Keyset page of a site's history, newest first, strictly before (createdAt, id)
+    @Query("SELECT q FROM QueueToken q WHERE q.site.id = :siteId " +
+           "AND (q.createdAt < :createdAt OR (q.createdAt = :createdAt AND q.id < :id)) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<QueueToken> findBySiteIdBefore(Long siteId, LocalDateTime createdAt, Long id, Pageable limit);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT q FROM QueueToken q WHERE q.site.id = :siteId ORDER BY q.createdAt DESC, q.id DESC")
+    Stream<QueueToken> streamBySiteId(Long siteId);
 }
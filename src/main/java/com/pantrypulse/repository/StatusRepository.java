@@ -1,4 +1,10 @@
 package com.pantrypulse.repository;
 import com.pantrypulse.model.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
-public interface StatusRepository extends JpaRepository<Status, Long> {}
+
+import java.util.Optional;
+
+public interface StatusRepository extends JpaRepository<Status, Long> {
+    
+    Optional<Status> findBySiteId(Long siteId);
+}
@@ -0,0 +1,11 @@
+package com.pantrypulse.repository;
+
+import com.pantrypulse.model.WebhookDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, Long> {
+    
+    Page<WebhookDeadLetter> findAllByOrderByFailedAtDesc(Pageable pageable);
+}
@@ -2,14 +2,19 @@ package com.pantrypulse.repository;
 
 import com.pantrypulse.model.Webhook;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface WebhookRepository extends JpaRepository<Webhook, Long> {
     
     List<Webhook> findByActiveTrue();
     
-    @Query("SELECT w FROM Webhook w WHERE w.active = true AND :event MEMBER OF w.events")
-    List<Webhook> findActiveByEvent(String event);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Webhook w SET w.lastTriggeredAt = :at WHERE w.id = :id")
+    int markTriggered(Long id, LocalDateTime at);
 }
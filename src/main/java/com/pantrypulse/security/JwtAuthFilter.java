@@ -15,15 +15,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final JwtAuthenticationCache cache;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
-    public JwtAuthFilter(JwtService jwtService) {
+    public JwtAuthFilter(JwtService jwtService, JwtAuthenticationCache cache) {
         this.jwtService = jwtService;
+        this.cache = cache;
     }
 
     @Override
@@ -34,27 +36,44 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                Claims claims = jwtService.parse(token);
-                String username = claims.getSubject();
-                
-                // Extract role from token claims
-                String role = (String) claims.get("role");
-                if (role == null || role.isBlank()) {
-                    role = "ROLE_GUEST"; // default to GUEST if no role in token
-                }
-                
-                // Create UserDetails with the role from token
-                UserDetails user = User.withUsername(username)
-                    .password("")
-                    .authorities(role)
-                    .build();
-                    
+                UserDetails user = authenticate(token);
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                     user, null, user.getAuthorities());
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                auth.setDetails(detailsSource.buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (Exception ignored) {}
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Verifies the token, or reuses the principal built the last time this exact token
+     * was verified as long as it has not expired.
+     */
+    UserDetails authenticate(String token) {
+        String key = cache.key(token);
+        UserDetails cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtService.parse(token);
+        String username = claims.getSubject();
+        
+        // Extract role from token claims
+        String role = (String) claims.get("role");
+        if (role == null || role.isBlank()) {
+            role = "ROLE_GUEST"; // default to GUEST if no role in token
+        }
+        
+        // Create UserDetails with the role from token
+        UserDetails user = User.withUsername(username)
+            .password("")
+            .authorities(role)
+            .build();
+        if (claims.getExpiration() != null) {
+            cache.put(key, user, claims.getExpiration().getTime());
+        }
+        return user;
+    }
 }
@@ -0,0 +1,89 @@
+package com.pantrypulse.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of already verified bearer tokens, keyed by the SHA-256 digest of the
+ * token so raw tokens are never held in memory. Backed by Caffeine, so lookups from
+ * concurrent requests do not serialize on a lock; each entry expires at its token's
+ * {@code exp}, and is never returned after that.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final Cache<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public JwtAuthenticationCache(@Value("${security.jwt.cache-size:10000}") int maxEntries) {
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new Expiry<String, Entry>() {
+                @Override
+                public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis()));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, entry, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    public String key(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public UserDetails get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        // Caffeine expiry is the bound; the check covers an entry read in its last instant
+        if (entry != null && System.currentTimeMillis() < entry.expiresAtMillis()) {
+            hits.incrementAndGet();
+            return entry.user();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, UserDetails user, long expiresAtMillis) {
+        entries.put(key, new Entry(user, expiresAtMillis));
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    private record Entry(UserDetails user, long expiresAtMillis) { }
+}
@@ -0,0 +1,245 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.AuditLog;
+import com.pantrypulse.repository.AuditLogRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit entries off the request thread.
+ * <p>
+ * Durability modes ({@code app.audit.mode}):
+ * <ul>
+ *   <li>{@code async} - entries go to a bounded in-memory queue and a single writer
+ *   thread inserts them with JDBC batches once {@code batch-size} entries are ready or
+ *   {@code flush-interval-ms} has passed. Entries are no longer part of the caller's
+ *   transaction, and a crash loses whatever is still queued; shutdown drains the queue.</li>
+ *   <li>{@code sync} - entries are saved on the caller's thread inside its transaction,
+ *   as before.</li>
+ * </ul>
+ * When the queue is full, {@code app.audit.overflow} decides: {@code caller-runs}
+ * writes the entry on the caller's thread, {@code block} waits up to
+ * {@code offer-timeout-ms} for space and then drops, {@code drop} discards immediately.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_log (username, action, entity, entity_id, details, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum Overflow { CALLER_RUNS, BLOCK, DROP }
+
+    private final JdbcTemplate jdbc;
+    private final AuditLogRepository repository;
+    private final boolean async;
+    private final Overflow overflow;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<AuditLog> queue;
+    private final Timer flushTimer;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanosTotal = new AtomicLong();
+    private final AtomicLong flushNanosMax = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogWriter(JdbcTemplate jdbc,
+                          AuditLogRepository repository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.mode:async}") String mode,
+                          @Value("${app.audit.overflow:caller-runs}") String overflow,
+                          @Value("${app.audit.capacity:10000}") int capacity,
+                          @Value("${app.audit.batch-size:200}") int batchSize,
+                          @Value("${app.audit.flush-interval-ms:500}") long flushIntervalMs,
+                          @Value("${app.audit.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.jdbc = jdbc;
+        this.repository = repository;
+        this.async = !"sync".equalsIgnoreCase(mode);
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase().replace('-', '_'));
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("pantrypulse.audit.queue.depth", queue, BlockingQueue::size)
+            .description("Audit entries waiting for the writer")
+            .register(meterRegistry);
+        auditCounter(meterRegistry, "written", written);
+        auditCounter(meterRegistry, "dropped", dropped);
+        auditCounter(meterRegistry, "failed", failed);
+        auditCounter(meterRegistry, "caller_runs", callerRuns);
+        this.flushTimer = Timer.builder("pantrypulse.audit.flush")
+            .description("Time to write one batch of audit entries")
+            .register(meterRegistry);
+    }
+
+    private static void auditCounter(MeterRegistry registry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("pantrypulse.audit.entries", count, AtomicLong::get)
+            .tag("outcome", outcome)
+            .description("Audit entries by outcome")
+            .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!async) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    public void submit(AuditLog entry) {
+        if (!async) {
+            repository.save(entry);
+            return;
+        }
+        if (queue.offer(entry)) {
+            return;
+        }
+        switch (overflow) {
+            case CALLER_RUNS -> {
+                callerRuns.incrementAndGet();
+                write(List.of(entry));
+            }
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        drop(entry);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(entry);
+                }
+            }
+            case DROP -> drop(entry);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long flushCount = flushes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", async ? "async" : "sync");
+        stats.put("overflow", overflow.name().toLowerCase().replace('_', '-'));
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        stats.put("callerRuns", callerRuns.get());
+        stats.put("flushes", flushCount);
+        stats.put("avgFlushMillis", flushCount > 0 ? flushNanosTotal.get() / 1e6 / flushCount : 0.0);
+        stats.put("maxFlushMillis", flushNanosMax.get() / 1e6);
+        return stats;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbc.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setString(1, entry.getUsername());
+                ps.setString(2, entry.getAction());
+                ps.setString(3, entry.getEntity());
+                ps.setObject(4, entry.getEntityId(), Types.BIGINT);
+                ps.setString(5, entry.getDetails());
+                ps.setTimestamp(6, Timestamp.valueOf(entry.getTimestamp()));
+            });
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("Failed to write {} audit entries", batch.size(), e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            flushNanosTotal.addAndGet(elapsed);
+            flushNanosMax.accumulateAndGet(elapsed, Math::max);
+            flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void drop(AuditLog entry) {
+        dropped.incrementAndGet();
+        log.warn("Audit queue full, dropped: action={} entity={} entityId={}",
+            entry.getAction(), entry.getEntity(), entry.getEntityId());
+    }
+}
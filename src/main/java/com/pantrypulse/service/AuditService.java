@@ -1,22 +1,45 @@
 package com.pantrypulse.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.dto.CursorPage;
 import com.pantrypulse.model.AuditLog;
 import com.pantrypulse.repository.AuditLogRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
     
+    private static final LocalDateTime START_OF_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
     private final AuditLogRepository repository;
+    private final AuditLogWriter writer;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
     
+    /**
+     * Records an audit entry. The username is captured here on the request thread;
+     * the write itself is handed to {@link AuditLogWriter}.
+     */
     public void log(String action, String entity, Long entityId, String details) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -30,15 +53,20 @@ public class AuditService {
                 .entity(entity)
                 .entityId(entityId)
                 .details(details)
+                .timestamp(LocalDateTime.now())
                 .build();
                 
-            repository.save(auditLog);
+            writer.submit(auditLog);
             log.info("Audit: user={} action={} entity={} entityId={}", username, action, entity, entityId);
         } catch (Exception e) {
             log.error("Failed to create audit log", e);
         }
     }
     
+    public Map<String, Object> getPipelineStats() {
+        return writer.stats();
+    }
+    
     public Page<AuditLog> getAllLogs(Pageable pageable) {
         return repository.findAll(pageable);
     }
@@ -50,4 +78,39 @@ public class AuditService {
     public Page<AuditLog> getLogsByEntity(String entity, Pageable pageable) {
         return repository.findByEntityOrderByTimestampDesc(entity, pageable);
     }
+    
+    public CursorPage<AuditLog> getLogsPage(LocalDateTime from, LocalDateTime to, String before, int limit) {
+        limit = Math.max(1, Math.min(limit, 500));
+        LocalDateTime timestamp = END_OF_TIME;
+        long id = Long.MAX_VALUE;
+        if (before != null) {
+            String[] cursor = CursorPage.decode(before, 2);
+            timestamp = LocalDateTime.parse(cursor[0]);
+            id = Long.parseLong(cursor[1]);
+        }
+        List<AuditLog> page = repository.findBetweenBefore(
+            from != null ? from : START_OF_TIME,
+            to != null ? to : END_OF_TIME,
+            timestamp, id, PageRequest.of(0, limit));
+        return CursorPage.of(page, limit, a -> CursorPage.encode(a.getTimestamp(), a.getId()));
+    }
+    
+    /**
+     * Writes audit entries in [from, to) as NDJSON, newest first, from a server-side cursor.
+     */
+    @Transactional(readOnly = true)
+    public void exportLogs(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<AuditLog> logs = repository.streamBetween(
+                from != null ? from : START_OF_TIME,
+                to != null ? to : END_OF_TIME)) {
+            Iterator<AuditLog> it = logs.iterator();
+            while (it.hasNext()) {
+                AuditLog entry = it.next();
+                out.write(objectMapper.writeValueAsBytes(entry));
+                out.write('\n');
+                entityManager.detach(entry);
+            }
+        }
+        out.flush();
+    }
 }
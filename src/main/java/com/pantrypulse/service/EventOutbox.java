@@ -0,0 +1,407 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.model.SystemEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Transactional outbox for {@link SystemEvent}s. An event's outbox id is its
+ * {@link SystemEvent#getSequence() sequence}, the SSE event id clients resume from.
+ * <p>
+ * {@link #append} inserts the event into {@code event_outbox} on the caller's
+ * connection, so it commits or rolls back with the caller's transaction. A single relay
+ * thread per instance is woken after a local commit and otherwise polls every
+ * {@code poll-interval-ms} for rows written by other instances. Each pass does two things:
+ * <ul>
+ *   <li><b>Broadcast.</b> Every instance tails the table with its own in-memory id cursor
+ *   (no locks) and hands each new row to its local subscribers (SSE, replay buffer,
+ *   projections), so all instances see every event. The cursor starts at the last id
+ *   handed out when the application is ready.</li>
+ *   <li><b>Webhooks.</b> Rows not yet sent to webhooks are claimed exclusively with
+ *   {@code FOR UPDATE SKIP LOCKED} and marked in {@code published_at} in the same
+ *   transaction, so each event triggers webhooks on exactly one instance. A crash between
+ *   triggering and committing triggers that batch again.</li>
+ * </ul>
+ * <p>
+ * Ids come from a sequence when a row is inserted, not when it commits, so a row can
+ * become visible after a higher id has already been read. The tail therefore remembers
+ * ids it skipped over and looks for them again on every pass for up to
+ * {@code gap-timeout-ms}; an id still missing after that was rolled back (or belongs to
+ * a transaction open longer than the timeout, whose event is then not broadcast).
+ * Broadcasts stay in id order: rows read past a skipped id are held back until it
+ * appears, or for at most {@code hold-ms}, since a rolled-back id never appears. A row
+ * committing later than that is broadcast when it appears, after its successors, and
+ * counted in {@code pantrypulse.outbox.late}.
+ * <p>
+ * Rows sent to webhooks are purged after {@code retention-hours}.
+ */
+@Component
+@Slf4j
+public class EventOutbox {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO event_outbox (event_type, entity, entity_id, site_id, data, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "id, event_type, entity, entity_id, site_id, data, created_at";
+    private static final String TAIL_SQL =
+        "SELECT " + COLUMNS + " FROM event_outbox WHERE id > ? OR id = ANY (?) ORDER BY id LIMIT ?";
+    private static final String CLAIM_SQL =
+        "SELECT " + COLUMNS + " FROM event_outbox " +
+        "WHERE published_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    // last id handed out, rather than MAX(id), so an emptied (purged) table does not look
+    // like a run of skipped ids
+    private static final String NEWEST_ID_SQL =
+        "SELECT COALESCE(pg_sequence_last_value(pg_get_serial_sequence('event_outbox', 'id')), 0)";
+    private static final String HISTORY_SQL =
+        "SELECT " + COLUMNS + " FROM event_outbox WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final String OLDEST_ID_SQL = "SELECT MIN(id) FROM event_outbox";
+    private static final String MARK_SQL = "UPDATE event_outbox SET published_at = ? WHERE id = ANY (?)";
+    private static final String PURGE_SQL = "DELETE FROM event_outbox WHERE published_at < ?";
+    private static final int[] INSERT_TYPES =
+        {Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP};
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() { };
+    // most skipped ids remembered at once; beyond this a burst of rollbacks is not tracked
+    private static final int MAX_GAPS = 10_000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Duration retention;
+    private final long gapTimeoutMs;
+    private final long holdMs;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong lateRows = new AtomicLong();
+    private volatile LongConsumer tailStart;
+    private volatile Consumer<SystemEvent> broadcaster;
+    private volatile Consumer<SystemEvent> webhooks;
+    private volatile boolean running;
+    private Thread relay;
+
+    // Tail state, touched only by the relay thread: highest id read, skipped ids with when
+    // they were first skipped (ms), rows read but held behind a skipped id, and the highest
+    // id broadcast
+    private long cursor;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private final NavigableMap<Long, SystemEvent> held = new TreeMap<>();
+    private long broadcastUpTo;
+
+    public EventOutbox(JdbcTemplate jdbc,
+                       PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.events.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.events.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                       @Value("${app.events.outbox.retention-hours:24}") long retentionHours,
+                       @Value("${app.events.outbox.gap-timeout-ms:30000}") long gapTimeoutMs,
+                       @Value("${app.events.outbox.hold-ms:2000}") long holdMs) {
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.retention = Duration.ofHours(retentionHours);
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.holdMs = holdMs;
+        FunctionCounter.builder("pantrypulse.outbox.relayed", relayed, AtomicLong::get)
+            .description("Outbox events handed to this instance's subscribers")
+            .register(meterRegistry);
+        FunctionCounter.builder("pantrypulse.outbox.claimed", claimed, AtomicLong::get)
+            .description("Outbox events this instance claimed for webhook delivery")
+            .register(meterRegistry);
+        FunctionCounter.builder("pantrypulse.outbox.late", lateRows, AtomicLong::get)
+            .description("Outbox events broadcast after a higher id, having committed too late to be held for")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sets where events go: {@code tailStart} gets the id broadcasting starts after,
+     * {@code broadcaster} every later event on every instance, {@code webhooks} each event
+     * on one instance only. Called once by {@link EventService}.
+     */
+    void relayTo(LongConsumer tailStart, Consumer<SystemEvent> broadcaster, Consumer<SystemEvent> webhooks) {
+        this.tailStart = tailStart;
+        this.broadcaster = broadcaster;
+        this.webhooks = webhooks;
+    }
+
+    /**
+     * Writes the event as part of the current transaction, if any, and wakes the relay
+     * once it has committed.
+     */
+    public void append(SystemEvent event) {
+        jdbc.update(INSERT_SQL, new Object[] {
+            event.getEventType(),
+            event.getEntity(),
+            event.getEntityId(),
+            event.getSiteId(),
+            toJson(event.getData()),
+            Timestamp.valueOf(event.getTimestamp())
+        }, INSERT_TYPES);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeups.release();
+                }
+            });
+        } else {
+            wakeups.release();
+        }
+    }
+
+    /**
+     * Starts relaying once the application is ready, so every in-process subscriber has
+     * subscribed before the first event goes out. The tail starts after the last id handed
+     * out so far; in-memory subscribers load their state from the database at startup instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cursor = newestId();
+        broadcastUpTo = cursor;
+        if (tailStart != null) {
+            tailStart.accept(cursor);
+        }
+        running = true;
+        relay = new Thread(this::run, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+        wakeups.release();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+            relay.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Last id handed out so far, committed or not.
+     */
+    public long newestId() {
+        return jdbc.queryForObject(NEWEST_ID_SQL, Long.class);
+    }
+
+    /**
+     * Committed events with {@code after < id <= upTo}, oldest first, at most
+     * {@code limit} of them; {@code null} when some of them may already have been purged.
+     */
+    public List<SystemEvent> history(long after, long upTo, int limit) {
+        Long oldest = jdbc.queryForObject(OLDEST_ID_SQL, Long.class);
+        if (oldest == null || oldest > after + 1) {
+            return null;
+        }
+        return jdbc.query(HISTORY_SQL, (rs, row) -> toPending(rs, row).event(), after, upTo, limit);
+    }
+
+    @Scheduled(initialDelayString = "${app.events.outbox.purge-interval-ms:3600000}",
+               fixedDelayString = "${app.events.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        int purged = jdbc.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            log.debug("Purged {} outbox events sent to webhooks", purged);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+                broadcastNew();
+                claimForWebhooks();
+            } catch (InterruptedException e) {
+                // stop() interrupts; rows not yet claimed go to webhooks after restart
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying in {} ms: {}", pollIntervalMs, e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    // re-checked by the loop condition
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads rows above the cursor, and skipped rows that have since committed, and hands
+     * them to the local subscribers in id order as far as no recently skipped id is still
+     * missing.
+     */
+    private void broadcastNew() {
+        Consumer<SystemEvent> target = broadcaster;
+        if (target == null) {
+            return;
+        }
+        int count;
+        do {
+            expireGaps();
+            Long[] skipped = gaps.keySet().toArray(Long[]::new);
+            List<Pending> batch = jdbc.query(TAIL_SQL, ps -> {
+                ps.setLong(1, cursor);
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", skipped));
+                ps.setInt(3, batchSize);
+            }, this::toPending);
+            long now = System.currentTimeMillis();
+            for (Pending pending : batch) {
+                if (pending.id() <= cursor) {
+                    gaps.remove(pending.id());
+                } else {
+                    for (long missing = cursor + 1; missing < pending.id() && gaps.size() < MAX_GAPS; missing++) {
+                        gaps.put(missing, now);
+                    }
+                    cursor = pending.id();
+                }
+                if (pending.id() < broadcastUpTo) {
+                    // its successors were already released when the hold ran out
+                    lateRows.incrementAndGet();
+                    emit(target, pending.event());
+                } else {
+                    held.put(pending.id(), pending.event());
+                }
+            }
+            release(target, now);
+            count = batch.size();
+        } while (count == batchSize && running);
+    }
+
+    /**
+     * Broadcasts held rows below the lowest id skipped less than {@code hold-ms} ago.
+     */
+    private void release(Consumer<SystemEvent> target, long now) {
+        long holdCutoff = now - holdMs;
+        long barrier = Long.MAX_VALUE;
+        // insertion order is id order, and skip times only grow along it
+        for (Map.Entry<Long, Long> gap : gaps.entrySet()) {
+            if (gap.getValue() >= holdCutoff) {
+                barrier = gap.getKey();
+                break;
+            }
+        }
+        while (!held.isEmpty() && held.firstKey() < barrier) {
+            Map.Entry<Long, SystemEvent> next = held.pollFirstEntry();
+            broadcastUpTo = next.getKey();
+            emit(target, next.getValue());
+        }
+    }
+
+    private void emit(Consumer<SystemEvent> target, SystemEvent event) {
+        target.accept(event);
+        relayed.incrementAndGet();
+    }
+
+    private void expireGaps() {
+        long cutoff = System.currentTimeMillis() - gapTimeoutMs;
+        // insertion order is skip order, so the oldest gaps come first
+        Iterator<Long> it = gaps.values().iterator();
+        while (it.hasNext() && it.next() < cutoff) {
+            it.remove();
+        }
+    }
+
+    private void claimForWebhooks() {
+        int count;
+        do {
+            Integer claimedNow = transactions.execute(status -> claimBatch());
+            count = claimedNow != null ? claimedNow : 0;
+        } while (count == batchSize && running);
+    }
+
+    private int claimBatch() {
+        Consumer<SystemEvent> target = webhooks;
+        if (target == null) {
+            return 0;
+        }
+        List<Pending> batch = jdbc.query(CLAIM_SQL, this::toPending, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        for (Pending pending : batch) {
+            target.accept(pending.event());
+        }
+        Long[] ids = batch.stream().map(Pending::id).toArray(Long[]::new);
+        jdbc.update(MARK_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids));
+        });
+        claimed.addAndGet(batch.size());
+        return batch.size();
+    }
+
+    private Pending toPending(ResultSet rs, int row) throws SQLException {
+        SystemEvent event = SystemEvent.builder()
+            .sequence(rs.getLong("id"))
+            .eventType(rs.getString("event_type"))
+            .entity(rs.getString("entity"))
+            .entityId(rs.getObject("entity_id", Long.class))
+            .siteId(rs.getObject("site_id", Long.class))
+            .data(fromJson(rs.getString("data")))
+            .timestamp(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+        return new Pending(rs.getLong("id"), event);
+    }
+
+    private String toJson(Map<String, Object> data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event data is not serializable", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(data, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable outbox event data, relaying without it: {}", e.getOriginalMessage());
+            return Map.of();
+        }
+    }
+
+    private record Pending(long id, SystemEvent event) { }
+}
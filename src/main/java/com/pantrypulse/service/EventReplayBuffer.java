@@ -0,0 +1,105 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.SystemEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent events, indexed by their sequence, so reconnecting
+ * SSE clients can be sent exactly what they missed.
+ * <p>
+ * Sequences are {@code event_outbox} ids, so they are the same on every instance and
+ * survive restarts, but they are not contiguous (rolled-back inserts leave holes). The
+ * buffer holds every broadcast event with a sequence above {@link #floor()}; older ones
+ * have to be read from the outbox table.
+ */
+@Component
+public class EventReplayBuffer {
+
+    private final SystemEvent[] ring;
+    // ring[start] is the oldest event; events up to floor are not (or no longer) held
+    private int start;
+    private int size;
+    private long floor;
+    private long lastSequence;
+
+    public EventReplayBuffer(@Value("${app.events.replay-buffer-size:1024}") int capacity) {
+        this.ring = new SystemEvent[capacity];
+    }
+
+    /**
+     * Empties the buffer and starts it after {@code sequence}, the id the outbox tail
+     * starts after.
+     */
+    public synchronized void startAfter(long sequence) {
+        start = 0;
+        size = 0;
+        floor = sequence;
+        lastSequence = sequence;
+    }
+
+    /**
+     * Appends the event, evicting the oldest when full. Returns false, leaving the buffer
+     * unchanged, for an event whose sequence is not above the last one: readers resume by
+     * sequence and would never see it.
+     */
+    public synchronized boolean append(SystemEvent event) {
+        if (event.getSequence() <= lastSequence) {
+            return false;
+        }
+        if (size == ring.length) {
+            floor = ring[start].getSequence();
+            start = (start + 1) % ring.length;
+            size--;
+        }
+        ring[(start + size) % ring.length] = event;
+        size++;
+        lastSequence = event.getSequence();
+        return true;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Highest sequence the buffer no longer (or never did) hold; events after it are all
+     * here.
+     */
+    public synchronized long floor() {
+        return floor;
+    }
+
+    /**
+     * Events with a sequence greater than {@code after}, oldest first, or {@code null}
+     * when some of them may have been evicted already.
+     */
+    public synchronized List<SystemEvent> since(long after) {
+        if (after < floor) {
+            return null;
+        }
+        // first position holding a sequence above after
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (at(mid).getSequence() <= after) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<SystemEvent> events = new ArrayList<>(size - low);
+        for (int i = low; i < size; i++) {
+            events.add(at(i));
+        }
+        return events;
+    }
+
+    private SystemEvent at(int position) {
+        return ring[(start + position) % ring.length];
+    }
+}
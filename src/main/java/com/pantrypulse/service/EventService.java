@@ -1,40 +1,116 @@
 package com.pantrypulse.service;
 
+import com.pantrypulse.dto.EventFilter;
 import com.pantrypulse.model.SystemEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EventService {
     
-    private final Sinks.Many<SystemEvent> eventSink = Sinks.many().multicast().onBackpressureBuffer();
+    public enum Overflow { DROP_OLDEST, DISCONNECT }
+    
+    // Best-effort multicast: the sink itself never buffers, each subscriber bounds its own backlog
+    private final Sinks.Many<SystemEvent> eventSink = Sinks.many().multicast().directBestEffort();
+    private final Object publishLock = new Object();
     private final WebhookService webhookService;
+    private final EventReplayBuffer replayBuffer;
+    private final EventOutbox outbox;
+    private final int subscriberBufferSize;
+    private final Overflow overflow;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
     
+    public EventService(WebhookService webhookService,
+                        EventReplayBuffer replayBuffer,
+                        EventOutbox outbox,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.events.subscriber-buffer-size:256}") int subscriberBufferSize,
+                        @Value("${app.events.overflow:drop-oldest}") String overflow) {
+        this.webhookService = webhookService;
+        this.replayBuffer = replayBuffer;
+        this.outbox = outbox;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase().replace('-', '_'));
+        Gauge.builder("pantrypulse.sse.subscribers", subscribers, Set::size)
+            .description("Connected event stream subscribers")
+            .register(meterRegistry);
+        Gauge.builder("pantrypulse.sse.max.lag", this, EventService::maxLag)
+            .description("Events the slowest subscriber is behind")
+            .register(meterRegistry);
+        FunctionCounter.builder("pantrypulse.sse.dropped", dropped, AtomicLong::get)
+            .description("Events dropped from full subscriber buffers")
+            .register(meterRegistry);
+        FunctionCounter.builder("pantrypulse.sse.disconnected", disconnected, AtomicLong::get)
+            .description("Subscribers disconnected for falling behind")
+            .register(meterRegistry);
+        outbox.relayTo(replayBuffer::startAfter, this::emit, this::triggerWebhooks);
+    }
+    
+    /**
+     * Records the event in the outbox as part of the caller's transaction. Once that
+     * transaction has committed, the outbox relay of every instance hands it to that
+     * instance's subscribers and replay buffer, and one instance triggers webhooks for it,
+     * so a rolled-back change is never announced.
+     * <p>
+     * This holds for changes the caller's transaction writes. Queue token changes are
+     * written later by {@link QueueEngine}, so their events are not published here: they
+     * are built with {@link #event} and handed to the engine, which appends them in the
+     * transaction that writes the token.
+     */
     public void publishEvent(String eventType, String entity, Long entityId, Map<String, Object> data) {
-        SystemEvent event = SystemEvent.builder()
+        outbox.append(event(eventType, entity, entityId, data));
+    }
+    
+    public static SystemEvent event(String eventType, String entity, Long entityId, Map<String, Object> data) {
+        return SystemEvent.builder()
             .eventType(eventType)
             .entity(entity)
             .entityId(entityId)
+            .siteId(siteIdOf(entity, entityId, data))
             .data(data)
             .timestamp(LocalDateTime.now())
             .build();
-        
-        eventSink.tryEmitNext(event);
-        log.info("Event published: type={} entity={} entityId={}", eventType, entity, entityId);
-        
-        // Trigger webhooks asynchronously
-        webhookService.triggerEvent(eventType, Map.of(
-            "entity", entity,
-            "entityId", entityId,
-            "data", data,
+    }
+    
+    private void emit(SystemEvent event) {
+        // Buffering and emission happen together so subscribers see sequences in order
+        synchronized (publishLock) {
+            if (!replayBuffer.append(event)) {
+                // broadcast after a higher id (see EventOutbox); SSE clients resume by id
+                // and cannot be sent it, in-process listeners still are
+                log.warn("Event seq={} arrived after a later one, not sent to event streams", event.getSequence());
+            }
+            eventSink.tryEmitNext(event);
+        }
+        log.info("Event published: seq={} type={} entity={} entityId={}", event.getSequence(),
+            event.getEventType(), event.getEntity(), event.getEntityId());
+    }
+    
+    private void triggerWebhooks(SystemEvent event) {
+        // Asynchronous; the outbox hands each event to exactly one instance for this
+        webhookService.triggerEvent(event.getEventType(), Map.of(
+            "entity", event.getEntity(),
+            "entityId", event.getEntityId(),
+            "data", event.getData(),
             "timestamp", event.getTimestamp().toString()
         ));
     }
@@ -42,4 +118,164 @@ public class EventService {
     public Flux<SystemEvent> getEventStream() {
         return eventSink.asFlux();
     }
+    
+    /**
+     * Live events for an SSE client, starting after {@code lastEventId} when it is given.
+     * Event ids are outbox ids, so a client can resume on any instance and across restarts.
+     * Events older than the replay buffer are read back from the outbox once, when the
+     * client connects. After that each subscriber keeps a cursor into the replay buffer and
+     * catches up from it whenever a new event arrives, so nothing is lost between the
+     * replay and the live stream. If the cursor has fallen out of the buffer (or the outbox
+     * no longer has the events) a single {@code stream.resync} event is sent and the stream
+     * continues from the newest event.
+     * <p>
+     * A subscriber never holds more than {@code subscriber-buffer-size} unread events that
+     * match its filter (events it does not want are skipped before counting): when it lags
+     * further behind, {@code drop-oldest} skips ahead (announced with a
+     * {@code stream.dropped} event) and {@code disconnect} ends the stream so the client
+     * reconnects and resumes.
+     */
+    public Flux<SystemEvent> getEventStream(Long lastEventId, EventFilter filter) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(lastEventId != null ? lastEventId : replayBuffer.lastSequence(), filter);
+            List<SystemEvent> older = lastEventId != null ? fromOutbox(subscriber) : List.of();
+            subscribers.add(subscriber);
+            Flux<Long> wakeups = eventSink.asFlux()
+                .map(SystemEvent::getSequence)
+                .onBackpressureLatest();
+            Flux<SystemEvent> live = Flux.merge(Flux.just(subscriber.cursor.get()), wakeups)
+                .concatMapIterable(seq -> catchUp(subscriber));
+            return Flux.concat(Flux.fromIterable(older), live)
+                .takeWhile(event -> !SystemEvent.EventType.STREAM_DISCONNECT.getValue().equals(event.getEventType()))
+                .doFinally(signal -> subscribers.remove(subscriber));
+        });
+    }
+    
+    public Map<String, Object> streamStats() {
+        long maxLag = 0;
+        long totalLag = 0;
+        for (Subscriber subscriber : subscribers) {
+            long lag = lag(subscriber);
+            maxLag = Math.max(maxLag, lag);
+            totalLag += lag;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxLag", maxLag);
+        stats.put("totalLag", totalLag);
+        stats.put("droppedEvents", dropped.get());
+        stats.put("disconnectedSubscribers", disconnected.get());
+        stats.put("overflow", overflow.name().toLowerCase().replace('_', '-'));
+        stats.put("subscriberBufferSize", subscriberBufferSize);
+        return stats;
+    }
+    
+    private double maxLag() {
+        long maxLag = 0;
+        for (Subscriber subscriber : subscribers) {
+            maxLag = Math.max(maxLag, lag(subscriber));
+        }
+        return maxLag;
+    }
+    
+    /**
+     * Buffered events after the subscriber's cursor that match its filter; all matching
+     * buffered events once the cursor has fallen out of the buffer.
+     */
+    private long lag(Subscriber subscriber) {
+        List<SystemEvent> unread = replayBuffer.since(subscriber.cursor.get());
+        if (unread == null) {
+            unread = replayBuffer.since(replayBuffer.floor());
+        }
+        return unread.stream().filter(subscriber.filter::matches).count();
+    }
+    
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+    
+    /**
+     * Events between the subscriber's cursor and the start of the replay buffer, read from
+     * the outbox, moving the cursor to the buffer. Leaves the cursor alone when there are
+     * none to read, or more than one subscriber buffer's worth or purged ones, so that
+     * {@link #catchUp} resyncs. An id beyond any handed out resyncs too.
+     */
+    private List<SystemEvent> fromOutbox(Subscriber subscriber) {
+        long after = subscriber.cursor.get();
+        if (after > replayBuffer.lastSequence()) {
+            if (after > outbox.newestId()) {
+                subscriber.cursor.set(-1);
+            }
+            // otherwise written by another instance and on its way here
+            return List.of();
+        }
+        long floor = replayBuffer.floor();
+        if (after >= floor) {
+            return List.of();
+        }
+        List<SystemEvent> older = outbox.history(after, floor, subscriberBufferSize + 1);
+        if (older == null || older.size() > subscriberBufferSize) {
+            return List.of();
+        }
+        subscriber.cursor.set(floor);
+        return older.stream().filter(subscriber.filter::matches).toList();
+    }
+    
+    private List<SystemEvent> catchUp(Subscriber subscriber) {
+        AtomicLong cursor = subscriber.cursor;
+        List<SystemEvent> unread = replayBuffer.since(cursor.get());
+        if (unread == null) {
+            long latest = replayBuffer.lastSequence();
+            cursor.set(latest);
+            return List.of(marker(SystemEvent.EventType.STREAM_RESYNC, latest));
+        }
+        if (unread.isEmpty()) {
+            return unread;
+        }
+        // the cursor moves past events the subscriber does not want; only matches count
+        long last = unread.get(unread.size() - 1).getSequence();
+        List<SystemEvent> missed = unread.stream().filter(subscriber.filter::matches).toList();
+        if (missed.size() > subscriberBufferSize) {
+            if (overflow == Overflow.DISCONNECT) {
+                disconnected.incrementAndGet();
+                return List.of(marker(SystemEvent.EventType.STREAM_DISCONNECT, cursor.get()));
+            }
+            int skipped = missed.size() - subscriberBufferSize;
+            dropped.addAndGet(skipped);
+            SystemEvent notice = marker(SystemEvent.EventType.STREAM_DROPPED, missed.get(skipped - 1).getSequence());
+            notice.setData(Map.of("dropped", skipped));
+            List<SystemEvent> kept = new ArrayList<>(subscriberBufferSize + 1);
+            kept.add(notice);
+            kept.addAll(missed.subList(skipped, missed.size()));
+            missed = kept;
+        }
+        cursor.set(last);
+        return missed;
+    }
+    
+    private static SystemEvent marker(SystemEvent.EventType type, long sequence) {
+        return SystemEvent.builder()
+            .sequence(sequence)
+            .eventType(type.getValue())
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+    
+    private static Long siteIdOf(String entity, Long entityId, Map<String, Object> data) {
+        if ("Site".equals(entity)) {
+            return entityId;
+        }
+        Object siteId = data != null ? data.get("siteId") : null;
+        return siteId instanceof Number n ? n.longValue() : null;
+    }
+    
+    private static final class Subscriber {
+        private final AtomicLong cursor;
+        private final EventFilter filter;
+        
+        private Subscriber(long cursor, EventFilter filter) {
+            this.cursor = new AtomicLong(cursor);
+            this.filter = filter;
+        }
+    }
 }
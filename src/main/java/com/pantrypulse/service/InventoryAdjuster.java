@@ -0,0 +1,188 @@
+package com.pantrypulse.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.model.Site;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies quantity adjustments as a single atomic {@code qty = qty + ?} update, so
+ * concurrent adjustments to one item never overwrite each other.
+ * <p>
+ * With {@code app.inventory.adjust-coalesce-window-ms} above zero, adjustments to the
+ * same item that arrive within the window are summed into one write and one
+ * {@code inventory.updated} event. Every caller in a burst waits for that write and gets
+ * the item as it stands after it, so a burst adds up to one window of latency.
+ */
+@Component
+public class InventoryAdjuster {
+
+    private static final String ADJUST_SQL =
+        "UPDATE inventory_item SET qty = COALESCE(qty, 0) + ? WHERE id = ? " +
+        "RETURNING id, site_id, sku, name, tags, qty, unit, reorder_threshold";
+
+    private final JdbcTemplate jdbc;
+    private final SiteRepository siteRepo;
+    private final EventService eventService;
+    private final long windowMs;
+    private final ScheduledExecutorService timer;
+
+    private final Map<Long, Burst> bursts = new ConcurrentHashMap<>();
+    // the site attached to returned items; a rename shows up here within a minute
+    private final Cache<Long, Site> sites = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(1))
+        .build();
+
+    public InventoryAdjuster(JdbcTemplate jdbc,
+                             SiteRepository siteRepo,
+                             EventService eventService,
+                             @Value("${app.inventory.adjust-coalesce-window-ms:0}") long windowMs,
+                             @Value("${app.inventory.adjust-flush-threads:2}") int flushThreads) {
+        this.jdbc = jdbc;
+        this.siteRepo = siteRepo;
+        this.eventService = eventService;
+        this.windowMs = windowMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.timer = windowMs > 0
+            ? Executors.newScheduledThreadPool(flushThreads, r -> {
+                Thread thread = new Thread(r, "inventory-coalescer-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+
+    public InventoryItem adjust(Long id, int adjustment) {
+        if (timer == null) {
+            return apply(id, adjustment, 1);
+        }
+        while (true) {
+            Burst burst = bursts.computeIfAbsent(id, key -> {
+                Burst fresh = new Burst();
+                timer.schedule(() -> flush(key, fresh), windowMs, TimeUnit.MILLISECONDS);
+                return fresh;
+            });
+            boolean joined = false;
+            synchronized (burst) {
+                if (!burst.closed) {
+                    burst.delta += adjustment;
+                    burst.count++;
+                    joined = true;
+                }
+            }
+            if (joined) {
+                return await(burst.result);
+            }
+            // The burst was closed between lookup and join; the next lookup starts a new one
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (timer != null) {
+            // Already-scheduled flushes still run after shutdown
+            timer.shutdown();
+            timer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void flush(Long id, Burst burst) {
+        int delta;
+        int count;
+        synchronized (burst) {
+            burst.closed = true;
+            delta = burst.delta;
+            count = burst.count;
+        }
+        bursts.remove(id, burst);
+        if (count == 0) {
+            return;
+        }
+        try {
+            burst.result.complete(apply(id, delta, count));
+        } catch (RuntimeException e) {
+            burst.result.completeExceptionally(e);
+        }
+    }
+
+    private InventoryItem apply(Long id, int adjustment, int merged) {
+        List<InventoryItem> rows = jdbc.query(ADJUST_SQL, this::mapRow, adjustment, id);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Inventory item not found: " + id);
+        }
+        InventoryItem updated = rows.get(0);
+        int previousQty = updated.getQty() - adjustment;
+
+        // Publish event if stock becomes low
+        if (updated.getQty() < updated.lowStockThreshold()) {
+            eventService.publishEvent("inventory.low", "InventoryItem", updated.getId(),
+                InventoryService.eventData(updated, Map.of("previousQty", previousQty)));
+        }
+
+        Map<String, Object> extra = merged > 1
+            ? Map.of("adjustment", adjustment, "coalesced", merged)
+            : Map.of("adjustment", adjustment);
+        eventService.publishEvent("inventory.updated", "InventoryItem", updated.getId(),
+            InventoryService.eventData(updated, extra));
+        return updated;
+    }
+
+    private InventoryItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Long siteId = rs.getObject("site_id", Long.class);
+        return InventoryItem.builder()
+            .id(rs.getLong("id"))
+            .site(siteId != null ? site(siteId) : null)
+            .sku(rs.getString("sku"))
+            .name(rs.getString("name"))
+            .tags(rs.getString("tags"))
+            .qty(rs.getInt("qty"))
+            .unit(rs.getString("unit"))
+            .reorderThreshold(rs.getObject("reorder_threshold", Integer.class))
+            .build();
+    }
+
+    private Site site(Long siteId) {
+        return sites.get(siteId, id -> siteRepo.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Site not found: " + id)));
+    }
+
+    private static InventoryItem await(CompletableFuture<InventoryItem> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for inventory adjustment", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Burst {
+        private final CompletableFuture<InventoryItem> result = new CompletableFuture<>();
+        private int delta;
+        private int count;
+        private boolean closed;
+    }
+}
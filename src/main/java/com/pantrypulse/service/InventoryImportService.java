@@ -0,0 +1,250 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.pantrypulse.dto.ImportReport;
+import com.pantrypulse.dto.InventoryRequest;
+import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk inventory loads from CSV or NDJSON uploads shaped like {@link InventoryRequest}.
+ * <p>
+ * The upload is parsed as a stream and never held in memory; valid rows are upserted on
+ * {@code (site_id, sku)} in JDBC batches of {@code app.inventory.import.batch-size}. Each
+ * batch commits on its own, so a failed import keeps the batches written before it. A
+ * batch the database rejects is retried row by row to pin the error on the right rows.
+ * Instead of one {@code inventory.updated} per row, one {@code inventory.imported}
+ * summary is published per site.
+ */
+@Service
+@Slf4j
+public class InventoryImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO inventory_item (site_id, sku, name, tags, qty, unit, reorder_threshold) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (site_id, sku) DO UPDATE SET name = EXCLUDED.name, tags = EXCLUDED.tags, " +
+        "qty = EXCLUDED.qty, unit = EXCLUDED.unit, reorder_threshold = EXCLUDED.reorder_threshold";
+
+    private final JdbcTemplate jdbc;
+    private final SiteRepository siteRepo;
+    private final EventService eventService;
+    private final InventoryTagIndex tagIndex;
+    private final Validator validator;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    public InventoryImportService(JdbcTemplate jdbc,
+                                  SiteRepository siteRepo,
+                                  EventService eventService,
+                                  InventoryTagIndex tagIndex,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.inventory.import.batch-size:500}") int batchSize) {
+        this.jdbc = jdbc;
+        this.siteRepo = siteRepo;
+        this.eventService = eventService;
+        this.tagIndex = tagIndex;
+        this.validator = validator;
+        this.ndjsonReader = objectMapper.readerFor(InventoryRequest.class);
+        this.csvReader = new CsvMapper()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(InventoryRequest.class)
+            .with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importInventory(InputStream in, Format format) throws IOException {
+        Run run = new Run();
+        if (format == Format.CSV) {
+            readCsv(in, run);
+        } else {
+            readNdjson(in, run);
+        }
+        run.flush();
+        run.summaries.keySet().forEach(tagIndex::reload);
+        run.summaries.forEach((siteId, summary) ->
+            eventService.publishEvent("inventory.imported", "Site", siteId, Map.of(
+                "siteId", siteId,
+                "upserted", summary.upserted,
+                "lowStock", summary.lowStock
+            )));
+        log.info("Inventory import: {} rows, {} upserted, {} failed across {} sites",
+            run.rows, run.upserted, run.failed, run.summaries.size());
+
+        Map<Long, Integer> bySite = new TreeMap<>();
+        run.summaries.forEach((siteId, summary) -> bySite.put(siteId, summary.upserted));
+        return new ImportReport(run.rows, run.upserted, run.failed, bySite,
+            run.errors, run.failed > run.errors.size());
+    }
+
+    private void readCsv(InputStream in, Run run) throws IOException {
+        try (MappingIterator<InventoryRequest> it = csvReader.readValues(in)) {
+            while (true) {
+                try {
+                    if (!it.hasNextValue()) {
+                        return;
+                    }
+                } catch (Exception e) {
+                    // The stream itself is broken (e.g. an unterminated quote); nothing after it is readable
+                    run.reject(++run.rows, null, "Unreadable CSV: " + e.getMessage());
+                    return;
+                }
+                int row = ++run.rows;
+                try {
+                    run.accept(row, it.nextValue());
+                } catch (Exception e) {
+                    run.reject(row, null, "Malformed row: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readNdjson(InputStream in, Run run) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int row = ++run.rows;
+            try {
+                run.accept(row, ndjsonReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(row, null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private record Row(int row, InventoryRequest item) {
+
+        private void bind(PreparedStatement ps) throws SQLException {
+            ps.setLong(1, item.siteId());
+            ps.setString(2, item.sku());
+            ps.setString(3, item.name());
+            ps.setString(4, item.tags() != null ? String.join(",", InventoryTagIndex.parse(item.tags())) : null);
+            ps.setInt(5, item.qty());
+            ps.setString(6, item.unit());
+            ps.setObject(7, item.reorderThreshold(), Types.INTEGER);
+        }
+    }
+
+    private static final class SiteSummary {
+        private int upserted;
+        private int lowStock;
+    }
+
+    /**
+     * State of one import: the pending batch, per-site summaries and collected errors.
+     */
+    private final class Run {
+        private final List<Row> batch = new ArrayList<>(batchSize);
+        private final Map<Long, Boolean> knownSites = new HashMap<>();
+        private final Map<Long, SiteSummary> summaries = new HashMap<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private int rows;
+        private int upserted;
+        private int failed;
+
+        private void accept(int row, InventoryRequest item) {
+            if (item == null) {
+                reject(row, null, "Empty row");
+                return;
+            }
+            Set<ConstraintViolation<InventoryRequest>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                reject(row, item.sku(), violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+                return;
+            }
+            if (!knownSites.computeIfAbsent(item.siteId(), siteRepo::existsById)) {
+                reject(row, item.sku(), "Site not found: " + item.siteId());
+                return;
+            }
+            batch.add(new Row(row, item));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                jdbc.batchUpdate(UPSERT_SQL, batch, batch.size(), Row::bind);
+                batch.forEach(this::written);
+            } catch (DataAccessException e) {
+                log.warn("Inventory import batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+                for (Row row : batch) {
+                    try {
+                        jdbc.batchUpdate(UPSERT_SQL, List.of(row), 1, Row::bind);
+                        written(row);
+                    } catch (DataAccessException rowError) {
+                        reject(row.row(), row.item().sku(), rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        private void written(Row row) {
+            InventoryRequest item = row.item();
+            SiteSummary summary = summaries.computeIfAbsent(item.siteId(), id -> new SiteSummary());
+            summary.upserted++;
+            int threshold = item.reorderThreshold() != null
+                ? item.reorderThreshold()
+                : InventoryItem.DEFAULT_LOW_STOCK_THRESHOLD;
+            if (item.qty() < threshold) {
+                summary.lowStock++;
+            }
+            upserted++;
+        }
+
+        private void reject(int row, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(row, sku, message));
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.pantrypulse.service;
 
+import com.pantrypulse.dto.CursorPage;
 import com.pantrypulse.model.InventoryItem;
 import com.pantrypulse.repository.InventoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -11,39 +15,117 @@ import java.util.List;
 public class InventoryService {
     private final InventoryRepository repo;
     private final EventService eventService;
+    private final InventoryAdjuster adjuster;
+    private final InventoryTagIndex tagIndex;
     
     public List<InventoryItem> all(){ return repo.findAll(); }
     
+    /**
+     * Creates or updates an item. A SKU is unique per site: creating one that already
+     * exists there (or renaming onto it) fails with {@link DuplicateKeyException}, a 409.
+     */
     public InventoryItem save(InventoryItem i){ 
+        if (i.getId() == null && i.getSite() != null && i.getSku() != null
+                && repo.existsBySiteIdAndSku(i.getSite().getId(), i.getSku())) {
+            throw new DuplicateKeyException("SKU " + i.getSku() + " already exists at site " + i.getSite().getId());
+        }
+        if (i.getTags() != null) {
+            i.setTags(String.join(",", InventoryTagIndex.parse(i.getTags())));
+        }
         InventoryItem saved = repo.save(i);
+        tagIndex.put(saved);
         eventService.publishEvent("inventory.updated", "InventoryItem", saved.getId(),
-            java.util.Map.of("sku", saved.getSku(), "qty", saved.getQty()));
+            eventData(saved, java.util.Map.of()));
         return saved;
     }
     
     public InventoryItem adjustQuantity(Long id, Integer adjustment) {
+        InventoryItem updated = adjuster.adjust(id, adjustment);
+        tagIndex.updateQuantity(updated);
+        return updated;
+    }
+    
+    public InventoryItem setReorderThreshold(Long id, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Reorder threshold cannot be negative");
+        }
+        // Targeted update so a concurrent quantity adjustment is never overwritten
+        if (repo.updateReorderThreshold(id, threshold) == 0) {
+            throw new IllegalArgumentException("Inventory item not found: " + id);
+        }
         InventoryItem item = repo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Inventory item not found: " + id));
-        
-        int oldQty = item.getQty();
-        item.setQty(item.getQty() + adjustment);
-        InventoryItem updated = repo.save(item);
-        
-        // Publish event if stock becomes low
-        if (updated.getQty() < 10) {
-            eventService.publishEvent("inventory.low", "InventoryItem", updated.getId(),
-                java.util.Map.of("sku", updated.getSku(), "qty", updated.getQty(), "previousQty", oldQty));
-        }
-        
-        eventService.publishEvent("inventory.updated", "InventoryItem", updated.getId(),
-            java.util.Map.of("sku", updated.getSku(), "qty", updated.getQty(), "adjustment", adjustment));
-        
-        return updated;
+        eventService.publishEvent("inventory.updated", "InventoryItem", item.getId(),
+            eventData(item, java.util.Map.of()));
+        return item;
     }
     
-    public List<InventoryItem> findLowStock(Integer threshold) {
-        return repo.findAll().stream()
-            .filter(item -> item.getQty() < threshold)
+    /**
+     * Items carrying all of {@code all} and, when given, at least one of {@code any}; a
+     * {@code null} site searches every site. Answered from {@link InventoryTagIndex}.
+     */
+    public List<InventoryItem> findByTags(Long siteId, List<String> all, List<String> any,
+                                          boolean inStockOnly, int limit) {
+        List<Long> ids = tagIndex.search(siteId, all, any, inStockOnly);
+        List<Long> page = ids.subList(0, Math.min(ids.size(), Math.max(1, Math.min(limit, 500))));
+        return repo.findAllById(page).stream()
+            .sorted(java.util.Comparator.comparing(InventoryItem::getId))
             .toList();
     }
+    
+    public java.util.Map<String, Integer> tagFacets(Long siteId, List<String> filter, boolean inStockOnly) {
+        return tagIndex.facets(siteId, filter, inStockOnly);
+    }
+    
+    /**
+     * All low-stock items, optionally for one site. A {@code threshold} overrides every
+     * item's own reorder threshold; without one each item's threshold (or the default) applies.
+     */
+    public List<InventoryItem> findLowStock(Long siteId, Integer threshold) {
+        return lowStock(siteId, threshold, null, Pageable.unpaged());
+    }
+    
+    public CursorPage<InventoryItem> lowStockFeed(Long siteId, Integer threshold, String after, int limit) {
+        limit = Math.max(1, Math.min(limit, 500));
+        List<InventoryItem> items = lowStock(siteId, threshold, after, PageRequest.of(0, limit));
+        return CursorPage.of(items, limit, item -> CursorPage.encode(item.getQty(), item.getId()));
+    }
+    
+    private List<InventoryItem> lowStock(Long siteId, Integer threshold, String after, Pageable limit) {
+        boolean perItem = threshold == null;
+        int ceiling = perItem ? ceilingThreshold(siteId) : threshold;
+        int afterQty = Integer.MIN_VALUE;
+        long afterId = 0L;
+        if (after != null) {
+            String[] cursor = CursorPage.decode(after, 2);
+            afterQty = Integer.parseInt(cursor[0]);
+            afterId = Long.parseLong(cursor[1]);
+        }
+        int defaultThreshold = InventoryItem.DEFAULT_LOW_STOCK_THRESHOLD;
+        return siteId != null
+            ? repo.findLowStockBySite(siteId, ceiling, perItem, defaultThreshold, afterQty, afterId, limit)
+            : repo.findLowStock(ceiling, perItem, defaultThreshold, afterQty, afterId, limit);
+    }
+    
+    /**
+     * Highest threshold any item can have, scoped to the site when there is one so a large
+     * threshold at one site does not widen the scan everywhere else.
+     */
+    private int ceilingThreshold(Long siteId) {
+        Integer max = siteId != null ? repo.findMaxReorderThresholdBySite(siteId) : repo.findMaxReorderThreshold();
+        return Math.max(InventoryItem.DEFAULT_LOW_STOCK_THRESHOLD, max != null ? max : 0);
+    }
+    
+    static java.util.Map<String, Object> eventData(InventoryItem item, java.util.Map<String, Object> extra) {
+        java.util.Map<String, Object> data = new java.util.HashMap<>(extra);
+        data.put("sku", item.getSku());
+        data.put("qty", item.getQty());
+        if (item.getReorderThreshold() != null) {
+            data.put("reorderThreshold", item.getReorderThreshold());
+        }
+        if (item.getSite() != null) {
+            data.put("siteId", item.getSite().getId());
+        }
+        return data;
+    }
 }
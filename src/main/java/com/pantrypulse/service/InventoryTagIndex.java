@@ -0,0 +1,308 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.repository.InventoryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-site inverted index from normalized tag to a bitmap of the site's items.
+ * <p>
+ * Each site numbers its items with dense ordinals (freed ordinals are reused), so tag
+ * postings are {@link BitSet}s and AND/OR queries and facet counts are word-wide bit
+ * operations. A second bitmap tracks which items are in stock. Kept current by
+ * {@link InventoryService}; bulk imports reload the affected sites, and a periodic
+ * rebuild picks up changes made by other instances. Writers, including the table reads
+ * of a rebuild or reload, are serialized on the index so a local write is never
+ * replaced by rows read before it; searches do not wait for them.
+ */
+@Component
+@Slf4j
+public class InventoryTagIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s_]+");
+    private static final Pattern INVALID = Pattern.compile("[^a-z0-9-]");
+    private static final Pattern DASHES = Pattern.compile("-{2,}");
+
+    private final InventoryRepository repo;
+    private final Map<Long, SiteTags> sites = new ConcurrentHashMap<>();
+    private final Map<Long, Long> siteOfItem = new ConcurrentHashMap<>();
+
+    public InventoryTagIndex(InventoryRepository repo) {
+        this.repo = repo;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.inventory.tag-index-refresh-ms:300000}",
+               fixedDelayString = "${app.inventory.tag-index-refresh-ms:300000}")
+    public synchronized void rebuild() {
+        Map<Long, SiteTags> fresh = new HashMap<>();
+        Map<Long, Long> freshSiteOfItem = new HashMap<>();
+        List<Object[]> rows = repo.findItemTags();
+        for (Object[] row : rows) {
+            fresh.computeIfAbsent((Long) row[1], id -> new SiteTags())
+                .put((Long) row[0], parse((String) row[2]), (Integer) row[3]);
+            freshSiteOfItem.put((Long) row[0], (Long) row[1]);
+        }
+        sites.keySet().retainAll(fresh.keySet());
+        sites.putAll(fresh);
+        siteOfItem.keySet().retainAll(freshSiteOfItem.keySet());
+        siteOfItem.putAll(freshSiteOfItem);
+        log.debug("Tag index rebuilt: {} items across {} sites", rows.size(), fresh.size());
+    }
+
+    /**
+     * Re-reads one site's items, e.g. after a bulk import.
+     */
+    public synchronized void reload(Long siteId) {
+        SiteTags fresh = new SiteTags();
+        for (Object[] row : repo.findItemTagsBySite(siteId)) {
+            fresh.put((Long) row[0], parse((String) row[2]), (Integer) row[3]);
+            siteOfItem.put((Long) row[0], siteId);
+        }
+        sites.put(siteId, fresh);
+    }
+
+    public synchronized void put(InventoryItem item) {
+        if (item.getSite() == null) {
+            return;
+        }
+        Long siteId = item.getSite().getId();
+        Long previousSite = siteOfItem.put(item.getId(), siteId);
+        if (previousSite != null && !previousSite.equals(siteId)) {
+            SiteTags old = sites.get(previousSite);
+            if (old != null) {
+                old.remove(item.getId());
+            }
+        }
+        sites.computeIfAbsent(siteId, id -> new SiteTags())
+            .put(item.getId(), parse(item.getTags()), item.getQty());
+    }
+
+    public synchronized void updateQuantity(InventoryItem item) {
+        if (item.getSite() == null) {
+            return;
+        }
+        SiteTags site = sites.get(item.getSite().getId());
+        if (site != null) {
+            site.updateQuantity(item.getId(), item.getQty());
+        }
+    }
+
+    /**
+     * Ids of items having every tag in {@code all} and, if {@code any} is non-empty, at
+     * least one tag in {@code any}. A {@code null} site searches every site.
+     */
+    public List<Long> search(Long siteId, Collection<String> all, Collection<String> any, boolean inStockOnly) {
+        Set<String> allTags = normalizeAll(all);
+        Set<String> anyTags = normalizeAll(any);
+        List<Long> ids = new ArrayList<>();
+        for (SiteTags site : scope(siteId)) {
+            site.search(allTags, anyTags, inStockOnly, ids);
+        }
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    /**
+     * Item count per tag, most common first, among items matching {@code filter} (all of
+     * those tags). A {@code null} site counts across every site.
+     */
+    public Map<String, Integer> facets(Long siteId, Collection<String> filter, boolean inStockOnly) {
+        Set<String> filterTags = normalizeAll(filter);
+        Map<String, Integer> counts = new HashMap<>();
+        for (SiteTags site : scope(siteId)) {
+            site.facets(filterTags, inStockOnly, counts);
+        }
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Lower-case, dash-separated form of a tag ("Gluten Free" becomes "gluten-free"), or an
+     * empty string if nothing usable is left.
+     */
+    public static String normalize(String tag) {
+        String dashed = SEPARATORS.matcher(tag.trim().toLowerCase(Locale.ROOT)).replaceAll("-");
+        String cleaned = DASHES.matcher(INVALID.matcher(dashed).replaceAll("")).replaceAll("-");
+        int start = 0;
+        int end = cleaned.length();
+        while (start < end && cleaned.charAt(start) == '-') {
+            start++;
+        }
+        while (end > start && cleaned.charAt(end - 1) == '-') {
+            end--;
+        }
+        return cleaned.substring(start, end);
+    }
+
+    /**
+     * Splits a comma-separated tag string into distinct normalized tags, in order.
+     */
+    public static Set<String> parse(String tags) {
+        Set<String> parsed = new LinkedHashSet<>();
+        if (tags == null) {
+            return parsed;
+        }
+        for (String tag : tags.split(",")) {
+            String normalized = normalize(tag);
+            if (!normalized.isEmpty()) {
+                parsed.add(normalized);
+            }
+        }
+        return parsed;
+    }
+
+    private static Set<String> normalizeAll(Collection<String> tags) {
+        return tags == null ? Set.of() : parse(String.join(",", tags));
+    }
+
+    private Collection<SiteTags> scope(Long siteId) {
+        if (siteId == null) {
+            return sites.values();
+        }
+        SiteTags site = sites.get(siteId);
+        return site != null ? List.of(site) : List.of();
+    }
+
+    private static final class SiteTags {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<Long> itemIds = new ArrayList<>();
+        private final Map<Integer, Set<String>> tagsByOrdinal = new HashMap<>();
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final Map<String, BitSet> postings = new HashMap<>();
+        private final BitSet live = new BitSet();
+        private final BitSet inStock = new BitSet();
+
+        private synchronized void put(Long itemId, Set<String> tags, Integer qty) {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal == null) {
+                ordinal = freeOrdinals.isEmpty() ? itemIds.size() : freeOrdinals.pop();
+                if (ordinal == itemIds.size()) {
+                    itemIds.add(itemId);
+                } else {
+                    itemIds.set(ordinal, itemId);
+                }
+                ordinals.put(itemId, ordinal);
+                live.set(ordinal);
+            }
+            Set<String> previous = tagsByOrdinal.put(ordinal, tags);
+            if (previous != null) {
+                for (String tag : previous) {
+                    if (!tags.contains(tag)) {
+                        BitSet posting = postings.get(tag);
+                        posting.clear(ordinal);
+                        if (posting.isEmpty()) {
+                            postings.remove(tag);
+                        }
+                    }
+                }
+            }
+            for (String tag : tags) {
+                postings.computeIfAbsent(tag, t -> new BitSet()).set(ordinal);
+            }
+            inStock.set(ordinal, qty != null && qty > 0);
+        }
+
+        private synchronized void remove(Long itemId) {
+            Integer ordinal = ordinals.remove(itemId);
+            if (ordinal == null) {
+                return;
+            }
+            Set<String> tags = tagsByOrdinal.remove(ordinal);
+            if (tags != null) {
+                for (String tag : tags) {
+                    BitSet posting = postings.get(tag);
+                    posting.clear(ordinal);
+                    if (posting.isEmpty()) {
+                        postings.remove(tag);
+                    }
+                }
+            }
+            live.clear(ordinal);
+            inStock.clear(ordinal);
+            itemIds.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        }
+
+        private synchronized void updateQuantity(Long itemId, Integer qty) {
+            Integer ordinal = ordinals.get(itemId);
+            if (ordinal != null) {
+                inStock.set(ordinal, qty != null && qty > 0);
+            }
+        }
+
+        private synchronized void search(Set<String> all, Set<String> any, boolean inStockOnly, List<Long> out) {
+            BitSet matches = filtered(all, inStockOnly);
+            if (matches == null) {
+                return;
+            }
+            if (!any.isEmpty()) {
+                BitSet union = new BitSet();
+                for (String tag : any) {
+                    BitSet posting = postings.get(tag);
+                    if (posting != null) {
+                        union.or(posting);
+                    }
+                }
+                matches.and(union);
+            }
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                out.add(itemIds.get(i));
+            }
+        }
+
+        private synchronized void facets(Set<String> filter, boolean inStockOnly, Map<String, Integer> counts) {
+            BitSet base = filtered(filter, inStockOnly);
+            if (base == null) {
+                return;
+            }
+            BitSet both = new BitSet();
+            postings.forEach((tag, posting) -> {
+                both.clear();
+                both.or(posting);
+                both.and(base);
+                int count = both.cardinality();
+                if (count > 0) {
+                    counts.merge(tag, count, Integer::sum);
+                }
+            });
+        }
+
+        /**
+         * Items carrying every tag in {@code all}, or {@code null} if none can.
+         */
+        private BitSet filtered(Set<String> all, boolean inStockOnly) {
+            BitSet matches = (BitSet) (inStockOnly ? inStock : live).clone();
+            for (String tag : all) {
+                BitSet posting = postings.get(tag);
+                if (posting == null) {
+                    return null;
+                }
+                matches.and(posting);
+            }
+            return matches;
+        }
+    }
+}
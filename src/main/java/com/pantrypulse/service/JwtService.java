@@ -1,6 +1,7 @@
 package com.pantrypulse.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -9,7 +10,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
@@ -18,6 +18,7 @@ import java.util.Map;
 public class JwtService {
 
     private final SecretKey signingKey;
+    private final JwtParser parser;
     private final long expiryMs;
 
     public JwtService(
@@ -29,6 +30,10 @@ public class JwtService {
             throw new IllegalArgumentException("security.jwt.secret must be Base64-encoded and at least 256 bits (32 bytes).");
         }
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        // Parsers are immutable and thread-safe, so one is shared by all requests
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
         this.expiryMs = expMinutes * 60_000L;
     }
 
@@ -44,11 +49,7 @@ public class JwtService {
     }
 
     public Claims parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
     
     public String extractUsername(String token) {
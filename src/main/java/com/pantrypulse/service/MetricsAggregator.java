@@ -0,0 +1,233 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.model.Site;
+import com.pantrypulse.model.SystemEvent;
+import com.pantrypulse.repository.InventoryRepository;
+import com.pantrypulse.repository.QueueTokenRepository;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps global, per-site and per-city counters current from the events
+ * {@link EventService} publishes, so metric reads never scan tables.
+ * <p>
+ * Events that race with a reconcile can be counted twice or missed; the periodic
+ * {@link #reconcile()} against the database bounds that drift. Waiting counts come
+ * straight from the {@link QueueEngine}, which is authoritative for them. Bulk imports
+ * only publish per-site summaries, so an {@code inventory.imported} event schedules a
+ * reconcile instead of being applied item by item.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MetricsAggregator {
+
+    private final SiteRepository siteRepo;
+    private final InventoryRepository inventoryRepo;
+    private final QueueTokenRepository queueRepo;
+    private final QueueEngine queueEngine;
+    private final EventService eventService;
+    private final ResourceVersions versions;
+
+    private State state = new State();
+    private Disposable subscription;
+    private volatile boolean reconcileRequested;
+
+    @PostConstruct
+    void start() {
+        reconcile();
+        subscription = eventService.getEventStream().subscribe(this::onEvent);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Rebuilds every counter from the database and swaps it in atomically.
+     */
+    @Scheduled(initialDelayString = "${app.metrics.reconcile-interval-ms:300000}",
+               fixedDelayString = "${app.metrics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        queueEngine.flush();
+        State fresh = new State();
+        for (Site site : siteRepo.findAll()) {
+            fresh.putSite(site.getId(), site.getName(), site.getCity());
+        }
+        for (Object[] row : inventoryRepo.findItemQuantities()) {
+            fresh.putItem((Long) row[0], (Long) row[1], (Integer) row[2], (Integer) row[3]);
+        }
+        for (Object[] row : queueRepo.countTokensBySite()) {
+            SiteCounters site = fresh.sites.get((Long) row[0]);
+            long count = (Long) row[1];
+            if (site != null) {
+                site.totalTokens = count;
+            }
+            fresh.totalTokens += count;
+        }
+        synchronized (this) {
+            state = fresh;
+        }
+        versions.bump(ResourceVersions.METRICS);
+        log.debug("Metrics reconciled: {} sites, {} items", fresh.sites.size(), fresh.items.size());
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    void reconcileIfRequested() {
+        if (reconcileRequested) {
+            reconcileRequested = false;
+            reconcile();
+        }
+    }
+
+    public synchronized Map<String, Object> globalMetrics() {
+        long totalSites = state.sites.size();
+        long waitingTokens = queueEngine.totalWaiting();
+        return Map.of(
+            "totalSites", totalSites,
+            "lowStockItems", state.lowStock,
+            "totalInventoryItems", (long) state.items.size(),
+            "totalQueueTokens", state.totalTokens,
+            "waitingQueueTokens", waitingTokens,
+            "avgQueueLength", waitingTokens > 0 ? (double) waitingTokens / totalSites : 0.0
+        );
+    }
+
+    public synchronized boolean hasSite(Long siteId) {
+        return state.sites.containsKey(siteId);
+    }
+
+    public synchronized Map<String, Object> siteMetrics(Long siteId) {
+        SiteCounters site = state.sites.get(siteId);
+        if (site == null) {
+            throw new IllegalArgumentException("Site not found: " + siteId);
+        }
+        return Map.of(
+            "siteId", siteId,
+            "siteName", site.name,
+            "inventoryItemCount", site.inventoryCount,
+            "lowStockItemCount", site.lowStockCount,
+            "totalQueueTokens", site.totalTokens,
+            "waitingQueueTokens", (long) queueEngine.waitingCount(siteId)
+        );
+    }
+
+    public synchronized Map<String, Map<String, Object>> cityMetrics() {
+        Map<String, Map<String, Object>> cityMetrics = new HashMap<>();
+        state.siteCountByCity.forEach((city, count) -> {
+            Map<String, Object> metrics = new HashMap<>();
+            metrics.put("siteCount", count);
+            cityMetrics.put(city, metrics);
+        });
+        return cityMetrics;
+    }
+
+    void onEvent(SystemEvent event) {
+        try {
+            apply(event);
+            versions.bump(ResourceVersions.METRICS);
+        } catch (Exception e) {
+            log.warn("Skipping metrics update for event {}: {}", event.getEventType(), e.getMessage());
+        }
+    }
+
+    private synchronized void apply(SystemEvent event) {
+        Map<String, Object> data = event.getData();
+        switch (event.getEventType()) {
+            case "site.created", "site.updated" ->
+                state.putSite(event.getEntityId(), (String) data.get("name"), (String) data.get("city"));
+            case "site.closed" -> state.removeSite(event.getEntityId());
+            case "inventory.updated" -> state.putItem(event.getEntityId(),
+                asLong(data.get("siteId")), ((Number) data.get("qty")).intValue(),
+                (Integer) data.get("reorderThreshold"));
+            case "inventory.imported" -> reconcileRequested = true;
+            case "queue.token.created" -> {
+                SiteCounters site = state.sites.get(asLong(data.get("siteId")));
+                if (site != null) {
+                    site.totalTokens++;
+                }
+                state.totalTokens++;
+            }
+            default -> { }
+        }
+    }
+
+    private static Long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : null;
+    }
+
+    private static final class SiteCounters {
+        private String name;
+        private String city;
+        private long inventoryCount;
+        private long lowStockCount;
+        private long totalTokens;
+    }
+
+    private record ItemState(Long siteId, boolean lowStock) { }
+
+    private static final class State {
+        private final Map<Long, SiteCounters> sites = new HashMap<>();
+        private final Map<Long, ItemState> items = new HashMap<>();
+        private final Map<String, Integer> siteCountByCity = new TreeMap<>();
+        private long lowStock;
+        private long totalTokens;
+
+        private void putSite(Long id, String name, String city) {
+            SiteCounters site = sites.computeIfAbsent(id, k -> new SiteCounters());
+            if (site.city != null) {
+                siteCountByCity.computeIfPresent(site.city, (k, n) -> n > 1 ? n - 1 : null);
+            }
+            site.name = name;
+            site.city = city;
+            if (city != null) {
+                siteCountByCity.merge(city, 1, Integer::sum);
+            }
+        }
+
+        private void removeSite(Long id) {
+            SiteCounters site = sites.remove(id);
+            if (site != null && site.city != null) {
+                siteCountByCity.computeIfPresent(site.city, (k, n) -> n > 1 ? n - 1 : null);
+            }
+        }
+
+        private void putItem(Long id, Long siteId, Integer qty, Integer reorderThreshold) {
+            ItemState previous = items.remove(id);
+            if (previous != null) {
+                count(previous, -1);
+            }
+            int threshold = reorderThreshold != null ? reorderThreshold : InventoryItem.DEFAULT_LOW_STOCK_THRESHOLD;
+            ItemState current = new ItemState(siteId, qty != null && qty < threshold);
+            items.put(id, current);
+            count(current, 1);
+        }
+
+        private void count(ItemState item, int delta) {
+            if (item.lowStock()) {
+                lowStock += delta;
+            }
+            SiteCounters site = item.siteId() != null ? sites.get(item.siteId()) : null;
+            if (site != null) {
+                site.inventoryCount += delta;
+                if (item.lowStock()) {
+                    site.lowStockCount += delta;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,663 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.QueueToken;
+import com.pantrypulse.model.Site;
+import com.pantrypulse.model.SystemEvent;
+import com.pantrypulse.repository.QueueTokenRepository;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Authoritative in-memory queue state, one {@link SiteQueue} per site.
+ * <p>
+ * Single instance: nothing carries one process's token changes into another's memory, so
+ * only one instance may run the engine. Startup takes a Postgres advisory lock, held on a
+ * dedicated connection for the life of the process, and fails if another instance keeps
+ * it for longer than {@code owner-lock-timeout-ms} (long enough for a rolling restart).
+ * <p>
+ * All mutations of a site's queue happen under that site's lock, so sites never
+ * contend with each other. Waiting lists, counts and positions are answered from
+ * memory; token changes are recorded as row snapshots and written to
+ * {@code queue_token} in JDBC batches by {@link #flush()}. On startup the active
+ * (waiting, called, serving) tokens are loaded back from the table.
+ * <p>
+ * Events announcing a token change ({@code queue.token.*}) travel with its snapshot and
+ * are appended to the outbox in the transaction that writes the row, so a token is never
+ * announced before, or without, its row. They reach subscribers up to one flush interval
+ * after the change.
+ * <p>
+ * Durability: a token change is acknowledged before it reaches the database, so a
+ * crash can lose up to one flush interval of queue changes. Rows that fail to write stay
+ * pending and are retried with exponential backoff; a finished token is evicted from
+ * memory only once its final state has been written. Reads of the table that must
+ * include unwritten changes go through {@link #readThrough}, which never waits for a
+ * flush to be due.
+ * <p>
+ * Tokens handed to callers are copies; the engine's own instances are only touched
+ * under their site lock.
+ */
+@Component
+@Slf4j
+public class QueueEngine {
+
+    private static final Set<QueueToken.TokenStatus> ACTIVE = EnumSet.of(
+        QueueToken.TokenStatus.WAITING,
+        QueueToken.TokenStatus.CALLED,
+        QueueToken.TokenStatus.SERVING
+    );
+
+    private static final Comparator<QueueToken> QUEUE_ORDER = Comparator
+        .comparing(QueueToken::getCreatedAt)
+        .thenComparing(QueueToken::getId);
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO queue_token (id, site_id, token_number, status, contact_name, contact_phone, " +
+        "estimated_wait_minutes, created_at, called_at, completed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (id) DO UPDATE SET status = EXCLUDED.status, " +
+        "estimated_wait_minutes = EXCLUDED.estimated_wait_minutes, " +
+        "called_at = EXCLUDED.called_at, completed_at = EXCLUDED.completed_at";
+    // advisory lock key held by the instance that owns the queue ("PPQUEUE" in ASCII)
+    private static final long OWNER_LOCK_KEY = 0x50_5051_5545_5545L;
+
+    private final JdbcTemplate jdbc;
+    private final QueueTokenRepository queueRepo;
+    private final SiteRepository siteRepo;
+    private final EventOutbox outbox;
+    private final TransactionTemplate transactions;
+    private final int batchSize;
+    private final int idBlockSize;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final long ownerLockTimeoutMs;
+
+    private final Map<Long, SiteQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, QueueToken> tokens = new ConcurrentHashMap<>();
+    private final Map<Long, TokenRow> pending = new ConcurrentHashMap<>();
+    // held for writing while a batch commits and leaves pending, so a reader sees each
+    // change either in the table or in pending
+    private final ReadWriteLock tableLock = new ReentrantReadWriteLock();
+    private final AtomicInteger totalWaiting = new AtomicInteger();
+    // orders events across tokens when a batch appends them
+    private final AtomicLong eventOrder = new AtomicLong();
+    private final Object idLock = new Object();
+    private final Deque<Long> idBlock = new ArrayDeque<>();
+    private final ExecutorService idPrefetcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "queue-id-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CompletableFuture<List<Long>> nextIdBlock;
+    private int failedFlushes;
+    private long retryAt;
+    private Connection ownerLock;
+
+    public QueueEngine(JdbcTemplate jdbc,
+                       QueueTokenRepository queueRepo,
+                       SiteRepository siteRepo,
+                       EventOutbox outbox,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.queue.flush-batch-size:500}") int batchSize,
+                       @Value("${app.queue.id-block-size:50}") int idBlockSize,
+                       @Value("${app.queue.retry-backoff-ms:500}") long retryBackoffMs,
+                       @Value("${app.queue.max-retry-backoff-ms:30000}") long maxRetryBackoffMs,
+                       @Value("${app.queue.owner-lock-timeout-ms:60000}") long ownerLockTimeoutMs) {
+        this.jdbc = jdbc;
+        this.queueRepo = queueRepo;
+        this.siteRepo = siteRepo;
+        this.outbox = outbox;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.idBlockSize = idBlockSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        this.ownerLockTimeoutMs = ownerLockTimeoutMs;
+    }
+
+    @PostConstruct
+    void rebuild() throws SQLException, InterruptedException {
+        acquireOwnership();
+        List<QueueToken> active = queueRepo.findByStatusInOrderByCreatedAtAsc(ACTIVE);
+        for (QueueToken token : active) {
+            SiteQueue queue = queueFor(token.getSite());
+            synchronized (queue) {
+                queue.track(token);
+            }
+        }
+        log.info("Queue engine rebuilt: {} active tokens across {} sites", active.size(), queues.size());
+    }
+
+    /**
+     * Looks up a site through the engine so repeated check-ins do not hit the site table.
+     */
+    public Site site(Long siteId) {
+        SiteQueue queue = queues.get(siteId);
+        if (queue != null) {
+            return queue.site;
+        }
+        Site site = siteRepo.findById(siteId)
+            .orElseThrow(() -> new IllegalArgumentException("Site not found: " + siteId));
+        return queueFor(site).site;
+    }
+
+    /**
+     * Refreshes or drops the cached site after it has been updated or deleted.
+     */
+    public void evictSite(Long siteId) {
+        SiteQueue queue = queues.get(siteId);
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            Optional<Site> fresh = siteRepo.findById(siteId);
+            if (fresh.isPresent()) {
+                queue.site = fresh.get();
+            } else if (queue.waiting.isEmpty() && queue.active.isEmpty()) {
+                queues.remove(siteId);
+            }
+        }
+    }
+
+    /**
+     * Adds a new token to the tail of its site's queue. The {@code initializer} runs under
+     * the site lock with the token's id already assigned and sees the current waiting count.
+     * The event built by {@code announce} (from the initialized token) is published when
+     * the token's row is written.
+     */
+    public QueueToken enqueue(Site site, QueueToken token, Consumer<QueueToken> initializer,
+                              Function<QueueToken, SystemEvent> announce) {
+        long id = nextId();
+        SiteQueue queue = queueFor(site);
+        synchronized (queue) {
+            token.setId(id);
+            token.setSite(queue.site);
+            token.setStatus(QueueToken.TokenStatus.WAITING);
+            token.setCreatedAt(LocalDateTime.now());
+            initializer.accept(token);
+            queue.track(token);
+            markDirty(token, announce.apply(token));
+            return copy(token);
+        }
+    }
+
+    /**
+     * Applies {@code change} to a token under its site lock and re-files it in the queue.
+     * The event built by {@code announce}, if any, is published when the changed row is
+     * written.
+     */
+    public QueueToken update(String tokenNumber, Consumer<QueueToken> change,
+                             Function<QueueToken, SystemEvent> announce) {
+        QueueToken token = tokens.get(tokenNumber);
+        if (token == null) {
+            // a detached copy: the loaded entity may be managed by the caller's transaction,
+            // which would write it a second time at commit
+            QueueToken loaded = queueRepo.findByTokenNumber(tokenNumber)
+                .map(QueueEngine::copy)
+                .orElseThrow(() -> new IllegalArgumentException("Token not found: " + tokenNumber));
+            QueueToken existing = tokens.putIfAbsent(tokenNumber, loaded);
+            token = existing != null ? existing : loaded;
+        }
+        SiteQueue queue = queueFor(token.getSite());
+        synchronized (queue) {
+            queue.untrack(token);
+            change.accept(token);
+            queue.track(token);
+            markDirty(token, announce.apply(token));
+            return copy(token);
+        }
+    }
+
+    /**
+     * Finds a token in memory, falling back to the table for finished tokens that have
+     * already been written and evicted.
+     */
+    public Optional<QueueToken> find(String tokenNumber) {
+        QueueToken token = tokens.get(tokenNumber);
+        if (token != null) {
+            SiteQueue queue = queueFor(token.getSite());
+            synchronized (queue) {
+                return Optional.of(copy(token));
+            }
+        }
+        return queueRepo.findByTokenNumber(tokenNumber);
+    }
+
+    public List<QueueToken> waiting(Long siteId) {
+        SiteQueue queue = queues.get(siteId);
+        if (queue == null) {
+            return List.of();
+        }
+        synchronized (queue) {
+            List<QueueToken> copies = new ArrayList<>(queue.waiting.size());
+            for (QueueToken token : queue.waiting) {
+                copies.add(copy(token));
+            }
+            return copies;
+        }
+    }
+
+    public int waitingCount(Long siteId) {
+        SiteQueue queue = queues.get(siteId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    public int totalWaiting() {
+        return totalWaiting.get();
+    }
+
+    /**
+     * Re-derives the estimated wait of every waiting token at a site from the number of
+     * people ahead of it. Only tokens whose estimate changes are rewritten.
+     */
+    public int refreshEstimates(Long siteId, IntUnaryOperator waitForAhead) {
+        SiteQueue queue = queues.get(siteId);
+        if (queue == null) {
+            return 0;
+        }
+        int changed = 0;
+        synchronized (queue) {
+            int ahead = 0;
+            for (QueueToken token : queue.waiting) {
+                int estimate = waitForAhead.applyAsInt(ahead++);
+                if (token.getEstimatedWaitMinutes() == null || token.getEstimatedWaitMinutes() != estimate) {
+                    token.setEstimatedWaitMinutes(estimate);
+                    markDirty(token, null);
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 1-based position of a waiting token in its site's queue, or 0 if it is not waiting.
+     */
+    public int position(String tokenNumber) {
+        QueueToken token = tokens.get(tokenNumber);
+        if (token == null) {
+            return 0;
+        }
+        SiteQueue queue = queues.get(token.getSite().getId());
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            if (!queue.waiting.contains(token)) {
+                return 0;
+            }
+            return queue.waiting.headSet(token).size() + 1;
+        }
+    }
+
+    /**
+     * Runs {@code read} against {@code queue_token} and returns its result together with
+     * the site's changes that are not written yet, keyed by token id. No batch commits
+     * while {@code read} runs, so every change is in exactly one of the two, and unwritten
+     * changes are newer than their rows. Streams must be opened (the query executed)
+     * inside {@code read}.
+     */
+    public <T> ReadThrough<T> readThrough(Long siteId, Supplier<T> read) {
+        tableLock.readLock().lock();
+        try {
+            T result = read.get();
+            SiteQueue queue = queues.get(siteId);
+            Map<Long, QueueToken> unwritten = new HashMap<>();
+            if (queue != null) {
+                for (TokenRow row : pending.values()) {
+                    if (row.siteId().equals(siteId)) {
+                        unwritten.put(row.id(), row.toToken(queue.site));
+                    }
+                }
+            }
+            return new ReadThrough<>(result, unwritten);
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    public record ReadThrough<T>(T table, Map<Long, QueueToken> unwritten) { }
+
+    /**
+     * Writes all pending token changes. Serialized so an older snapshot of a token can
+     * never overwrite a newer one. After a failed write, flushes are skipped until the
+     * backoff has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.queue.flush-interval-ms:250}")
+    public synchronized void flush() {
+        if (pending.isEmpty() || System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        boolean failed = false;
+        List<TokenRow> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (TokenRow row : new ArrayList<>(pending.values())) {
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                failed |= !write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            failed |= !write(batch);
+        }
+        if (failed) {
+            failedFlushes++;
+            long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(failedFlushes - 1, 20));
+            retryAt = System.currentTimeMillis() + backoff;
+            log.warn("Queue token flush incomplete, {} rows pending; retrying in {} ms", pending.size(), backoff);
+        } else {
+            failedFlushes = 0;
+            retryAt = 0;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (this) {
+            retryAt = 0;
+        }
+        flush();
+        idPrefetcher.shutdownNow();
+        releaseOwnership();
+    }
+
+    /**
+     * Takes the owner lock, waiting up to {@code owner-lock-timeout-ms} for a previous
+     * instance to let go of it.
+     */
+    private void acquireOwnership() throws SQLException, InterruptedException {
+        Connection connection = jdbc.getDataSource().getConnection();
+        long deadline = System.currentTimeMillis() + ownerLockTimeoutMs;
+        try {
+            while (!tryLock(connection)) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IllegalStateException("Another instance owns the queue engine (advisory lock "
+                        + OWNER_LOCK_KEY + "); PantryPulse runs as a single instance");
+                }
+                log.info("Waiting for another instance to release the queue engine");
+                Thread.sleep(1000);
+            }
+        } catch (SQLException | InterruptedException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        ownerLock = connection;
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, OWNER_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void releaseOwnership() {
+        if (ownerLock == null) {
+            return;
+        }
+        // closing the session releases the advisory lock
+        try {
+            ownerLock.close();
+        } catch (SQLException e) {
+            log.warn("Could not release the queue engine lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a batch and its events in one transaction, falling back to one transaction
+     * per row when the batch fails. Written rows leave {@code pending} unless a newer
+     * snapshot has replaced them, which keeps only its own, later events; rows that fail
+     * stay there with their events. Returns false if any row failed.
+     */
+    private boolean write(List<TokenRow> batch) {
+        List<TokenRow> written = batch;
+        tableLock.writeLock().lock();
+        try {
+            try {
+                commit(batch);
+            } catch (Exception e) {
+                log.error("Queue token batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+                written = new ArrayList<>(batch.size());
+                for (TokenRow row : batch) {
+                    try {
+                        commit(List.of(row));
+                        written.add(row);
+                    } catch (Exception rowError) {
+                        log.error("Queue token {} not written, will retry: {}", row.tokenNumber(), rowError.getMessage());
+                    }
+                }
+            }
+            for (TokenRow row : written) {
+                pending.computeIfPresent(row.id(), (id, current) -> current.equals(row)
+                    ? null
+                    : current.withoutEvents(row.events().size()));
+            }
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+        for (TokenRow row : written) {
+            if (!ACTIVE.contains(row.status()) && !pending.containsKey(row.id())) {
+                tokens.computeIfPresent(row.tokenNumber(),
+                    (number, token) -> token.getStatus() == row.status() ? null : token);
+            }
+        }
+        return written.size() == batch.size();
+    }
+
+    private void commit(List<TokenRow> rows) {
+        transactions.executeWithoutResult(status -> {
+            jdbc.batchUpdate(UPSERT_SQL, rows, rows.size(), TokenRow::bind);
+            rows.stream()
+                .flatMap(row -> row.events().stream())
+                .sorted(Comparator.comparingLong(QueuedEvent::order))
+                .forEach(queued -> outbox.append(queued.event()));
+        });
+    }
+
+    /**
+     * Records the token's current state, keeping events of earlier unwritten snapshots
+     * ahead of {@code event}.
+     */
+    private void markDirty(QueueToken token, SystemEvent event) {
+        tokens.put(token.getTokenNumber(), token);
+        List<QueuedEvent> events = event != null
+            ? List.of(new QueuedEvent(eventOrder.incrementAndGet(), event))
+            : List.of();
+        pending.merge(token.getId(), TokenRow.of(token, events), (older, newer) -> newer.after(older));
+    }
+
+    /**
+     * Hands out ids from a reserved block under its own lock. The next block is fetched in
+     * the background once half of the current one is used, so check-ins only wait for the
+     * sequence when the prefetch has not finished or has failed.
+     */
+    private long nextId() {
+        synchronized (idLock) {
+            if (idBlock.isEmpty()) {
+                idBlock.addAll(takePrefetched());
+            }
+            if (nextIdBlock == null && idBlock.size() <= idBlockSize / 2) {
+                nextIdBlock = CompletableFuture.supplyAsync(this::reserveIds, idPrefetcher);
+            }
+            return idBlock.poll();
+        }
+    }
+
+    private List<Long> takePrefetched() {
+        CompletableFuture<List<Long>> prefetched = nextIdBlock;
+        nextIdBlock = null;
+        if (prefetched != null) {
+            try {
+                return prefetched.join();
+            } catch (RuntimeException e) {
+                log.warn("Queue token id prefetch failed, reserving inline: {}", e.getMessage());
+            }
+        }
+        return reserveIds();
+    }
+
+    private List<Long> reserveIds() {
+        return jdbc.queryForList(
+            "SELECT nextval(pg_get_serial_sequence('queue_token', 'id')) FROM generate_series(1, ?)",
+            Long.class, idBlockSize);
+    }
+
+    private static QueueToken copy(QueueToken token) {
+        return QueueToken.builder()
+            .id(token.getId())
+            .site(token.getSite())
+            .tokenNumber(token.getTokenNumber())
+            .status(token.getStatus())
+            .contactName(token.getContactName())
+            .contactPhone(token.getContactPhone())
+            .estimatedWaitMinutes(token.getEstimatedWaitMinutes())
+            .createdAt(token.getCreatedAt())
+            .calledAt(token.getCalledAt())
+            .completedAt(token.getCompletedAt())
+            .build();
+    }
+
+    private SiteQueue queueFor(Site site) {
+        return queues.computeIfAbsent(site.getId(), id -> new SiteQueue(site));
+    }
+
+    private final class SiteQueue {
+        private volatile Site site;
+        private final TreeSet<QueueToken> waiting = new TreeSet<>(QUEUE_ORDER);
+        private final Set<QueueToken> active = new HashSet<>();
+
+        private SiteQueue(Site site) {
+            this.site = site;
+        }
+
+        private void track(QueueToken token) {
+            tokens.put(token.getTokenNumber(), token);
+            if (token.getStatus() == QueueToken.TokenStatus.WAITING) {
+                if (waiting.add(token)) {
+                    totalWaiting.incrementAndGet();
+                }
+            } else if (ACTIVE.contains(token.getStatus())) {
+                active.add(token);
+            }
+        }
+
+        private void untrack(QueueToken token) {
+            if (waiting.remove(token)) {
+                totalWaiting.decrementAndGet();
+            }
+            active.remove(token);
+        }
+    }
+
+    private record QueuedEvent(long order, SystemEvent event) { }
+
+    private record TokenRow(Long id, Long siteId, String tokenNumber, QueueToken.TokenStatus status,
+                            String contactName, String contactPhone, Integer estimatedWaitMinutes,
+                            LocalDateTime createdAt, LocalDateTime calledAt, LocalDateTime completedAt,
+                            List<QueuedEvent> events) {
+
+        static TokenRow of(QueueToken token, List<QueuedEvent> events) {
+            return new TokenRow(token.getId(), token.getSite().getId(), token.getTokenNumber(),
+                token.getStatus(), token.getContactName(), token.getContactPhone(),
+                token.getEstimatedWaitMinutes(), token.getCreatedAt(), token.getCalledAt(),
+                token.getCompletedAt(), events);
+        }
+
+        /**
+         * This snapshot carrying {@code older}'s unwritten events ahead of its own.
+         */
+        TokenRow after(TokenRow older) {
+            if (older.events.isEmpty()) {
+                return this;
+            }
+            List<QueuedEvent> merged = new ArrayList<>(older.events);
+            merged.addAll(events);
+            return withEvents(List.copyOf(merged));
+        }
+
+        /**
+         * Drops the first {@code count} events, which a written snapshot already published.
+         */
+        TokenRow withoutEvents(int count) {
+            return count == 0 ? this : withEvents(List.copyOf(events.subList(count, events.size())));
+        }
+
+        private TokenRow withEvents(List<QueuedEvent> events) {
+            return new TokenRow(id, siteId, tokenNumber, status, contactName, contactPhone,
+                estimatedWaitMinutes, createdAt, calledAt, completedAt, events);
+        }
+
+        QueueToken toToken(Site site) {
+            return QueueToken.builder()
+                .id(id)
+                .site(site)
+                .tokenNumber(tokenNumber)
+                .status(status)
+                .contactName(contactName)
+                .contactPhone(contactPhone)
+                .estimatedWaitMinutes(estimatedWaitMinutes)
+                .createdAt(createdAt)
+                .calledAt(calledAt)
+                .completedAt(completedAt)
+                .build();
+        }
+
+        private void bind(PreparedStatement ps) throws SQLException {
+            ps.setLong(1, id);
+            ps.setLong(2, siteId);
+            ps.setString(3, tokenNumber);
+            ps.setString(4, status.name());
+            ps.setString(5, contactName);
+            ps.setString(6, contactPhone);
+            ps.setObject(7, estimatedWaitMinutes, Types.INTEGER);
+            ps.setTimestamp(8, Timestamp.valueOf(createdAt));
+            ps.setTimestamp(9, calledAt != null ? Timestamp.valueOf(calledAt) : null);
+            ps.setTimestamp(10, completedAt != null ? Timestamp.valueOf(completedAt) : null);
+        }
+    }
+}
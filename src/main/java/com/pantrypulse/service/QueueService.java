@@ -1,105 +1,241 @@
 package com.pantrypulse.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.dto.CursorPage;
 import com.pantrypulse.model.QueueToken;
 import com.pantrypulse.model.Site;
+import com.pantrypulse.model.SystemEvent;
 import com.pantrypulse.repository.QueueTokenRepository;
-import com.pantrypulse.repository.SiteRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class QueueService {
     
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Comparator<QueueToken> NEWEST_FIRST = Comparator
+        .comparing(QueueToken::getCreatedAt)
+        .thenComparing(QueueToken::getId)
+        .reversed();
+    
     private final QueueTokenRepository queueRepo;
-    private final SiteRepository siteRepo;
+    private final QueueEngine queueEngine;
+    private final TokenNumberAllocator tokenNumbers;
     private final AuditService auditService;
-    private final EventService eventService;
+    private final ServiceTimeEstimator estimator;
+    private final ResourceVersions versions;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
     
-    @Transactional
+    /**
+     * Queue changes are committed by {@link QueueEngine} together with their events rather
+     * than in a request transaction, so neither this nor {@link #updateTokenStatus} opens one.
+     */
     public QueueToken createToken(Long siteId, String contactName, String contactPhone) {
-        Site site = siteRepo.findById(siteId)
-            .orElseThrow(() -> new IllegalArgumentException("Site not found: " + siteId));
-        
-        String tokenNumber = generateTokenNumber(site);
-        long waitingCount = queueRepo.countWaitingBySite(site);
-        int estimatedWait = (int) (waitingCount * 15); // 15 min per person estimate
+        Site site = queueEngine.site(siteId);
         
         QueueToken token = QueueToken.builder()
-            .site(site)
-            .tokenNumber(tokenNumber)
             .contactName(contactName)
             .contactPhone(contactPhone)
-            .status(QueueToken.TokenStatus.WAITING)
-            .estimatedWaitMinutes(estimatedWait)
             .build();
         
-        QueueToken saved = queueRepo.save(token);
+        QueueToken saved = queueEngine.enqueue(site, token, t -> {
+            t.setTokenNumber(generateTokenNumber(site));
+            t.setEstimatedWaitMinutes(estimator.waitMinutes(siteId, queueEngine.waitingCount(siteId)));
+        }, t -> EventService.event("queue.token.created", "QueueToken", t.getId(),
+            Map.of("tokenNumber", t.getTokenNumber(), "siteId", siteId, "estimatedWait", t.getEstimatedWaitMinutes(),
+                "queueLen", queueEngine.waitingCount(siteId), "serviceRatePph", serviceRate(siteId))));
+        estimator.onEnqueue(siteId);
+        String tokenNumber = saved.getTokenNumber();
         auditService.log("CREATE", "QueueToken", saved.getId(), 
             "Token " + tokenNumber + " for " + contactName);
         
-        eventService.publishEvent("queue.token.created", "QueueToken", saved.getId(),
-            java.util.Map.of("tokenNumber", tokenNumber, "siteId", siteId, "estimatedWait", estimatedWait));
-        
         return saved;
     }
     
-    @Transactional
     public QueueToken updateTokenStatus(String tokenNumber, QueueToken.TokenStatus newStatus) {
-        QueueToken token = queueRepo.findByTokenNumber(tokenNumber)
-            .orElseThrow(() -> new IllegalArgumentException("Token not found: " + tokenNumber));
-        
-        token.setStatus(newStatus);
+        QueueToken updated = queueEngine.update(tokenNumber, token -> {
+            token.setStatus(newStatus);
+            switch (newStatus) {
+                case CALLED:
+                    token.setCalledAt(LocalDateTime.now());
+                    break;
+                case COMPLETED:
+                case CANCELLED:
+                case NO_SHOW:
+                    token.setCompletedAt(LocalDateTime.now());
+                    break;
+                default:
+                    break;
+            }
+            estimator.record(token);
+        }, token -> statusEvent(token, newStatus));
+        estimator.onTransition(updated.getSite().getId());
+        versions.bump(ResourceVersions.METRICS);
         
-        switch (newStatus) {
-            case CALLED:
-                token.setCalledAt(LocalDateTime.now());
-                eventService.publishEvent("queue.token.called", "QueueToken", token.getId(),
-                    java.util.Map.of("tokenNumber", tokenNumber, "siteId", token.getSite().getId()));
-                break;
-            case COMPLETED:
-                token.setCompletedAt(LocalDateTime.now());
-                eventService.publishEvent("queue.token.completed", "QueueToken", token.getId(),
-                    java.util.Map.of("tokenNumber", tokenNumber, "siteId", token.getSite().getId()));
-                break;
-            case CANCELLED:
-            case NO_SHOW:
-                token.setCompletedAt(LocalDateTime.now());
-                break;
-            default:
-                break;
-        }
-        
-        QueueToken updated = queueRepo.save(token);
         auditService.log("UPDATE_STATUS", "QueueToken", updated.getId(), 
             "Status changed to " + newStatus);
         
         return updated;
     }
     
+    /**
+     * Event for a transition, built under the site lock so its queue length and rate are
+     * the ones right after it.
+     */
+    private SystemEvent statusEvent(QueueToken token, QueueToken.TokenStatus newStatus) {
+        String eventType = switch (newStatus) {
+            case CALLED -> "queue.token.called";
+            case COMPLETED -> "queue.token.completed";
+            case CANCELLED, NO_SHOW -> "queue.token.cancelled";
+            default -> null;
+        };
+        if (eventType == null) {
+            return null;
+        }
+        Long siteId = token.getSite().getId();
+        return EventService.event(eventType, "QueueToken", token.getId(),
+            Map.of("tokenNumber", token.getTokenNumber(), "siteId", siteId, "status", newStatus.name(),
+                "queueLen", queueEngine.waitingCount(siteId), "serviceRatePph", serviceRate(siteId)));
+    }
+    
+    private double serviceRate(Long siteId) {
+        return Math.round(estimator.servicesPerHour(siteId) * 10) / 10.0;
+    }
+    
     public List<QueueToken> getWaitingTokens(Long siteId) {
-        Site site = siteRepo.findById(siteId)
-            .orElseThrow(() -> new IllegalArgumentException("Site not found: " + siteId));
-        return queueRepo.findBySiteAndStatusOrderByCreatedAtAsc(site, QueueToken.TokenStatus.WAITING);
+        queueEngine.site(siteId);
+        return queueEngine.waiting(siteId);
+    }
+    
+    public java.util.Map<String, Object> getServiceEstimate(Long siteId) {
+        queueEngine.site(siteId);
+        java.util.Map<String, Object> estimate = new java.util.LinkedHashMap<>(estimator.stats(siteId));
+        estimate.put("waiting", queueEngine.waitingCount(siteId));
+        return estimate;
+    }
+    
+    public int getQueuePosition(String tokenNumber) {
+        getTokenByNumber(tokenNumber);
+        return queueEngine.position(tokenNumber);
     }
     
     public QueueToken getTokenByNumber(String tokenNumber) {
-        return queueRepo.findByTokenNumber(tokenNumber)
+        return queueEngine.find(tokenNumber)
             .orElseThrow(() -> new IllegalArgumentException("Token not found: " + tokenNumber));
     }
     
     public List<QueueToken> getTokensBySite(Long siteId) {
-        return queueRepo.findBySiteIdOrderByCreatedAtDesc(siteId);
+        // History is served from the table plus the engine's changes not written yet
+        QueueEngine.ReadThrough<List<QueueToken>> read =
+            queueEngine.readThrough(siteId, () -> queueRepo.findBySiteIdOrderByCreatedAtDesc(siteId));
+        return merge(read.table(), read.unwritten(), token -> true, Integer.MAX_VALUE);
+    }
+    
+    public CursorPage<QueueToken> getTokenHistory(Long siteId, String before, int limit) {
+        limit = Math.max(1, Math.min(limit, 500));
+        LocalDateTime createdAt = END_OF_TIME;
+        long id = Long.MAX_VALUE;
+        if (before != null) {
+            String[] cursor = CursorPage.decode(before, 2);
+            createdAt = LocalDateTime.parse(cursor[0]);
+            id = Long.parseLong(cursor[1]);
+        }
+        LocalDateTime beforeCreatedAt = createdAt;
+        long beforeId = id;
+        int pageSize = limit;
+        QueueEngine.ReadThrough<List<QueueToken>> read = queueEngine.readThrough(siteId,
+            () -> queueRepo.findBySiteIdBefore(siteId, beforeCreatedAt, beforeId, PageRequest.of(0, pageSize)));
+        List<QueueToken> page = merge(read.table(), read.unwritten(),
+            token -> NEWEST_FIRST.compare(token, cursorToken(beforeCreatedAt, beforeId)) > 0, limit);
+        return CursorPage.of(page, limit, t -> CursorPage.encode(t.getCreatedAt(), t.getId()));
+    }
+    
+    /**
+     * Writes a site's whole token history as NDJSON, newest first. Rows are streamed from
+     * a server-side cursor and detached once written, so memory stays flat; the engine's
+     * unwritten changes are merged in at their place in the order.
+     */
+    @Transactional(readOnly = true)
+    public void exportTokens(Long siteId, OutputStream out) throws IOException {
+        QueueEngine.ReadThrough<Stream<QueueToken>> read =
+            queueEngine.readThrough(siteId, () -> queueRepo.streamBySiteId(siteId));
+        Map<Long, QueueToken> unwritten = read.unwritten();
+        Deque<QueueToken> newer = new ArrayDeque<>(unwritten.values().stream().sorted(NEWEST_FIRST).toList());
+        try (Stream<QueueToken> tokens = read.table()) {
+            Iterator<QueueToken> it = tokens.iterator();
+            while (it.hasNext()) {
+                QueueToken token = it.next();
+                while (!newer.isEmpty() && NEWEST_FIRST.compare(newer.peek(), token) < 0) {
+                    writeLine(out, newer.poll());
+                }
+                if (!unwritten.containsKey(token.getId())) {
+                    writeLine(out, token);
+                }
+                entityManager.detach(token);
+            }
+        }
+        while (!newer.isEmpty()) {
+            writeLine(out, newer.poll());
+        }
+        out.flush();
+    }
+    
+    private void writeLine(OutputStream out, QueueToken token) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(token));
+        out.write('\n');
+    }
+    
+    /**
+     * Table rows with their unwritten versions swapped in, plus unwritten tokens in
+     * {@code range} not in the table yet, newest first, at most {@code limit}.
+     */
+    static List<QueueToken> merge(List<QueueToken> table, Map<Long, QueueToken> unwritten,
+                                  Predicate<QueueToken> range, int limit) {
+        Map<Long, QueueToken> byId = new LinkedHashMap<>();
+        for (QueueToken token : table) {
+            byId.put(token.getId(), token);
+        }
+        for (QueueToken token : unwritten.values()) {
+            if (byId.containsKey(token.getId()) || range.test(token)) {
+                byId.put(token.getId(), token);
+            }
+        }
+        return byId.values().stream().sorted(NEWEST_FIRST).limit(limit).toList();
+    }
+    
+    private static QueueToken cursorToken(LocalDateTime createdAt, long id) {
+        return QueueToken.builder().createdAt(createdAt).id(id).build();
     }
     
     private String generateTokenNumber(Site site) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long count = queueRepo.count() + 1;
-        return String.format("%s-%s-%04d", site.getCity().substring(0, 3).toUpperCase(), date, count);
+        LocalDate today = LocalDate.now();
+        return formatTokenNumber(site, today, tokenNumbers.next(site.getId(), today));
+    }
+    
+    static String formatTokenNumber(Site site, LocalDate day, long number) {
+        String date = day.format(DateTimeFormatter.BASIC_ISO_DATE);
+        // Sequences are per site, so the site id keeps numbers unique between sites in one city
+        String city = site.getCity().length() > 3 ? site.getCity().substring(0, 3) : site.getCity();
+        return String.format("%s%d-%s-%04d", city.toUpperCase(), site.getId(), date, number);
     }
 }
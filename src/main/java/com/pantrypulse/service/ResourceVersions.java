@@ -0,0 +1,108 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.config.TwoLevelCacheManager;
+import com.pantrypulse.model.SystemEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.Disposable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters for read-heavy resources. Site and inventory counters move on their
+ * events, which the outbox relays on every instance, so changes made by other instances
+ * are seen too; the metrics counter is moved by {@link MetricsAggregator} once it has
+ * applied a change, and by {@link QueueService} for queue transitions that publish no event.
+ * <p>
+ * A resource rendered from a cache of the same name (sites) has that cache's local level
+ * cleared before its counter moves, so a new version is never rendered from old entries.
+ * The writing instance calls {@link #changed} as well, so its own reads see the change
+ * without waiting for the relay.
+ * <p>
+ * Counters start from the startup time in microseconds, so versions handed out before a
+ * restart are never reused afterwards.
+ */
+@Component
+public class ResourceVersions {
+
+    public static final String SITES = "sites";
+    public static final String INVENTORY = "inventory";
+    public static final String METRICS = "metrics";
+
+    private final EventService eventService;
+    private final TwoLevelCacheManager cacheManager;
+    private final long origin = System.currentTimeMillis() * 1000;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private Disposable subscription;
+
+    public ResourceVersions(EventService eventService, TwoLevelCacheManager cacheManager) {
+        this.eventService = eventService;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    void start() {
+        subscription = eventService.getEventStream().subscribe(this::onEvent);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    public long current(String resource) {
+        return counter(resource).get();
+    }
+
+    public void bump(String resource) {
+        counter(resource).incrementAndGet();
+    }
+
+    /**
+     * For the instance that made a change: clears the resource's cache on both levels and
+     * bumps its counter, once the current transaction (if any) has committed.
+     */
+    public void changed(String resource) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearAndBump(resource);
+                }
+            });
+        } else {
+            clearAndBump(resource);
+        }
+    }
+
+    void onEvent(SystemEvent event) {
+        String type = event.getEventType();
+        if (type.startsWith("site.")) {
+            // the writer has cleared the shared level; drop what this instance still holds
+            cacheManager.clearLocal(SITES);
+            bump(SITES);
+        } else if (type.startsWith("inventory.")) {
+            bump(INVENTORY);
+        }
+    }
+
+    private void clearAndBump(String resource) {
+        Cache cache = cacheManager.getCacheNames().contains(resource) ? cacheManager.getCache(resource) : null;
+        if (cache != null) {
+            cache.clear();
+        }
+        bump(resource);
+    }
+
+    private AtomicLong counter(String resource) {
+        return versions.computeIfAbsent(resource, r -> new AtomicLong(origin));
+    }
+}
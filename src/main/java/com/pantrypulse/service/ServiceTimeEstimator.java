@@ -0,0 +1,173 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.QueueToken;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online estimate of how fast each site works through its queue.
+ * <p>
+ * Two exponentially weighted moving averages are kept per site: the gap between
+ * consecutive calls (queue throughput, which reflects however many volunteers are
+ * serving) and the called-to-completed service time. The call gap is preferred once
+ * known; gaps longer than {@code max-gap-minutes} are treated as breaks and ignored. A
+ * site's estimate starts from its persisted {@code Status.serviceRatePph}, loaded once at
+ * startup, or from {@code default-service-minutes}. Nothing here queries the database, as
+ * {@link #waitMinutes} runs under the queue engine's site lock.
+ * <p>
+ * Every transition updates the averages in O(1) and refreshes the estimates of the
+ * site's waiting tokens from their positions; history is never re-read. The resulting
+ * rate travels in the queue events (see {@link QueueService}), which is how every
+ * instance's {@link StatusProjection} learns it.
+ */
+@Component
+public class ServiceTimeEstimator {
+
+    private final QueueEngine queueEngine;
+    private final StatusService statusService;
+    private final double alpha;
+    private final double defaultMinutes;
+    private final double maxGapMinutes;
+
+    private final Map<Long, SiteRate> rates = new ConcurrentHashMap<>();
+    private volatile Map<Long, Double> persistedRates = Map.of();
+
+    public ServiceTimeEstimator(QueueEngine queueEngine,
+                                StatusService statusService,
+                                @Value("${app.queue.estimator.alpha:0.2}") double alpha,
+                                @Value("${app.queue.estimator.default-service-minutes:15}") double defaultMinutes,
+                                @Value("${app.queue.estimator.max-gap-minutes:60}") double maxGapMinutes) {
+        this.queueEngine = queueEngine;
+        this.statusService = statusService;
+        this.alpha = alpha;
+        this.defaultMinutes = defaultMinutes;
+        this.maxGapMinutes = maxGapMinutes;
+    }
+
+    @PostConstruct
+    void loadPersistedRates() {
+        persistedRates = statusService.serviceRates();
+    }
+
+    /**
+     * Expected wait for someone with {@code ahead} people in front of them.
+     */
+    public int waitMinutes(Long siteId, int ahead) {
+        return (int) Math.round(ahead * rate(siteId).minutesPerPerson());
+    }
+
+    /**
+     * Feeds a token transition into the site's averages. O(1), so it can run under the
+     * site lock where the transition happens.
+     */
+    public void record(QueueToken token) {
+        SiteRate rate = rate(token.getSite().getId());
+        switch (token.getStatus()) {
+            case CALLED -> rate.called(token.getCalledAt());
+            case COMPLETED -> rate.completed(token.getCalledAt(), token.getCompletedAt());
+            default -> { }
+        }
+    }
+
+    /**
+     * After a transition has been {@link #record recorded}: refreshes the waiting tokens'
+     * estimates and records the site's queue length and service rate.
+     */
+    public void onTransition(Long siteId) {
+        refresh(siteId);
+    }
+
+    public double servicesPerHour(Long siteId) {
+        return rate(siteId).servicesPerHour();
+    }
+
+    /**
+     * Re-publishes the site's queue length and rate, e.g. after a new token joined.
+     */
+    public void onEnqueue(Long siteId) {
+        statusService.recordQueue(siteId, queueEngine.waitingCount(siteId), rate(siteId).servicesPerHour());
+    }
+
+    public Map<String, Object> stats(Long siteId) {
+        SiteRate rate = rate(siteId);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (rate) {
+            stats.put("minutesPerPerson", rate.minutesPerPerson());
+            stats.put("serviceRatePph", rate.servicesPerHour());
+            stats.put("callGapMinutes", rate.callGap);
+            stats.put("serviceMinutes", rate.service);
+            stats.put("samples", rate.samples);
+        }
+        return stats;
+    }
+
+    private void refresh(Long siteId) {
+        double minutesPerPerson = rate(siteId).minutesPerPerson();
+        queueEngine.refreshEstimates(siteId, ahead -> (int) Math.round(ahead * minutesPerPerson));
+        statusService.recordQueue(siteId, queueEngine.waitingCount(siteId), 60.0 / minutesPerPerson);
+    }
+
+    private SiteRate rate(Long siteId) {
+        return rates.computeIfAbsent(siteId, id -> {
+            Double pph = persistedRates.get(id);
+            double initial = pph != null && pph > 0 ? 60.0 / pph : defaultMinutes;
+            return new SiteRate(initial);
+        });
+    }
+
+    private final class SiteRate {
+        private final double initialMinutes;
+        private Double callGap;
+        private Double service;
+        private LocalDateTime lastCalledAt;
+        private long samples;
+
+        private SiteRate(double initialMinutes) {
+            this.initialMinutes = initialMinutes;
+        }
+
+        private synchronized void called(LocalDateTime calledAt) {
+            if (calledAt == null) {
+                return;
+            }
+            if (lastCalledAt != null && calledAt.isAfter(lastCalledAt)) {
+                double gap = Duration.between(lastCalledAt, calledAt).toMillis() / 60000.0;
+                if (gap <= maxGapMinutes) {
+                    callGap = callGap == null ? gap : callGap + alpha * (gap - callGap);
+                    samples++;
+                }
+            }
+            if (lastCalledAt == null || calledAt.isAfter(lastCalledAt)) {
+                lastCalledAt = calledAt;
+            }
+        }
+
+        private synchronized void completed(LocalDateTime calledAt, LocalDateTime completedAt) {
+            if (calledAt == null || completedAt == null || !completedAt.isAfter(calledAt)) {
+                return;
+            }
+            double minutes = Duration.between(calledAt, completedAt).toMillis() / 60000.0;
+            if (minutes <= maxGapMinutes) {
+                service = service == null ? minutes : service + alpha * (minutes - service);
+                samples++;
+            }
+        }
+
+        private synchronized double minutesPerPerson() {
+            double minutes = callGap != null ? callGap : service != null ? service : initialMinutes;
+            // Guard against a burst of back-to-back calls collapsing the estimate to zero
+            return Math.max(minutes, 0.5);
+        }
+
+        private double servicesPerHour() {
+            return 60.0 / minutesPerPerson();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.Site;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Spatial index of site locations for nearest and within-radius lookups.
+ * <p>
+ * Locations are stored as unit vectors on the sphere in a 3-d k-d tree, so straight-line
+ * (chord) distance orders points exactly like great-circle distance and there are no
+ * seams at the poles or the antimeridian. Sites without coordinates are placed at their
+ * ZIP centroid. The tree is immutable and replaced on every change; reads never lock.
+ */
+@Component
+@Slf4j
+public class SiteGeoIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public record Hit(Site site, double distanceKm) {}
+
+    private final SiteRepository siteRepo;
+    private final ZipCentroids zipCentroids;
+
+    private final Map<Long, Site> sites = new HashMap<>();
+    private volatile Tree tree = Tree.build(List.of());
+
+    public SiteGeoIndex(SiteRepository siteRepo, ZipCentroids zipCentroids) {
+        this.siteRepo = siteRepo;
+        this.zipCentroids = zipCentroids;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.sites.search-refresh-ms:300000}",
+               fixedDelayString = "${app.sites.search-refresh-ms:300000}")
+    public synchronized void rebuild() {
+        sites.clear();
+        siteRepo.findAll().forEach(site -> sites.put(site.getId(), site));
+        publish();
+        log.debug("Site geo index rebuilt: {} of {} sites placed", tree.size(), sites.size());
+    }
+
+    public synchronized void put(Site site) {
+        sites.put(site.getId(), site);
+        publish();
+    }
+
+    public synchronized void remove(Long siteId) {
+        if (sites.remove(siteId) != null) {
+            publish();
+        }
+    }
+
+    /**
+     * The {@code k} sites closest to a point, nearest first.
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k) {
+        return tree.nearest(unit(latitude, longitude), k);
+    }
+
+    /**
+     * All sites within {@code radiusKm} of a point, nearest first.
+     */
+    public List<Hit> within(double latitude, double longitude, double radiusKm) {
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("radiusKm must be positive");
+        }
+        double chord = 2 * Math.sin(Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI) / 2);
+        return tree.within(unit(latitude, longitude), chord * chord);
+    }
+
+    private void publish() {
+        List<Placed> placed = new ArrayList<>(sites.size());
+        for (Site site : sites.values()) {
+            if (site.getLatitude() != null && site.getLongitude() != null) {
+                placed.add(new Placed(site, unit(site.getLatitude(), site.getLongitude())));
+            } else {
+                zipCentroids.lookup(site.getZip()).ifPresent(point ->
+                    placed.add(new Placed(site, unit(point.latitude(), point.longitude()))));
+            }
+        }
+        tree = Tree.build(placed);
+    }
+
+    private static double[] unit(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static double distanceKm(double chordSquared) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(chordSquared) / 2));
+    }
+
+    private static double chordSquared(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private record Placed(Site site, double[] point) {}
+
+    private record Candidate(Placed placed, double chordSquared) {}
+
+    /**
+     * Balanced k-d tree laid out implicitly: the subtree over {@code [lo, hi)} has its
+     * root at the midpoint and splits on axis {@code depth % 3}.
+     */
+    private static final class Tree {
+        private final Placed[] nodes;
+
+        private Tree(Placed[] nodes) {
+            this.nodes = nodes;
+        }
+
+        static Tree build(List<Placed> placed) {
+            Placed[] nodes = placed.toArray(new Placed[0]);
+            sort(nodes, 0, nodes.length, 0);
+            return new Tree(nodes);
+        }
+
+        private static void sort(Placed[] nodes, int lo, int hi, int depth) {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int axis = depth % 3;
+            Arrays.sort(nodes, lo, hi, Comparator.comparingDouble(p -> p.point()[axis]));
+            int mid = (lo + hi) >>> 1;
+            sort(nodes, lo, mid, depth + 1);
+            sort(nodes, mid + 1, hi, depth + 1);
+        }
+
+        int size() {
+            return nodes.length;
+        }
+
+        List<Hit> nearest(double[] target, int k) {
+            if (k <= 0) {
+                return List.of();
+            }
+            // Max-heap of the best k so far; its head is the current cut-off
+            PriorityQueue<Candidate> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::chordSquared).reversed());
+            nearest(target, k, 0, nodes.length, 0, best);
+            return sorted(new ArrayList<>(best));
+        }
+
+        private void nearest(double[] target, int k, int lo, int hi, int depth, PriorityQueue<Candidate> best) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            Placed node = nodes[mid];
+            double d = chordSquared(target, node.point());
+            if (best.size() < k) {
+                best.add(new Candidate(node, d));
+            } else if (d < best.peek().chordSquared()) {
+                best.poll();
+                best.add(new Candidate(node, d));
+            }
+            int axis = depth % 3;
+            double delta = target[axis] - node.point()[axis];
+            boolean left = delta < 0;
+            nearest(target, k, left ? lo : mid + 1, left ? mid : hi, depth + 1, best);
+            if (best.size() < k || delta * delta < best.peek().chordSquared()) {
+                nearest(target, k, left ? mid + 1 : lo, left ? hi : mid, depth + 1, best);
+            }
+        }
+
+        List<Hit> within(double[] target, double maxChordSquared) {
+            List<Candidate> found = new ArrayList<>();
+            within(target, maxChordSquared, 0, nodes.length, 0, found);
+            return sorted(found);
+        }
+
+        private void within(double[] target, double maxChordSquared, int lo, int hi, int depth,
+                            List<Candidate> found) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            Placed node = nodes[mid];
+            double d = chordSquared(target, node.point());
+            if (d <= maxChordSquared) {
+                found.add(new Candidate(node, d));
+            }
+            int axis = depth % 3;
+            double delta = target[axis] - node.point()[axis];
+            if (delta < 0 || delta * delta <= maxChordSquared) {
+                within(target, maxChordSquared, lo, mid, depth + 1, found);
+            }
+            if (delta >= 0 || delta * delta <= maxChordSquared) {
+                within(target, maxChordSquared, mid + 1, hi, depth + 1, found);
+            }
+        }
+
+        private static List<Hit> sorted(List<Candidate> candidates) {
+            candidates.sort(Comparator.comparingDouble(Candidate::chordSquared));
+            List<Hit> hits = new ArrayList<>(candidates.size());
+            for (Candidate c : candidates) {
+                hits.add(new Hit(c.placed().site(), distanceKm(c.chordSquared())));
+            }
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.Site;
+import com.pantrypulse.repository.SiteRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over site name, city, state and zip.
+ * <p>
+ * Each field has a trigram inverted index, so a substring term of three or more characters
+ * is answered by intersecting posting sets and confirming the candidates. Shorter terms
+ * go through a sorted word index (prefix match) for ranked search, and fall back to
+ * scanning the field values for filters. Writes come from {@link SiteService}; a
+ * periodic rebuild picks up changes made by other instances.
+ * <p>
+ * Writers, including the rebuild's table read, are serialized on the index, so a
+ * {@link #put} that lands while a rebuild is loading is applied after its swap rather
+ * than overwritten by it. Readers only wait for the swap itself.
+ */
+@Component
+@Slf4j
+public class SiteSearchIndex {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    enum Field {
+        NAME(4), CITY(3), STATE(1), ZIP(2);
+
+        private final int weight;
+
+        Field(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final SiteRepository siteRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Field, Map<String, Set<Long>>> grams = new EnumMap<>(Field.class);
+    private final TreeMap<String, Set<Long>> words = new TreeMap<>();
+
+    public SiteSearchIndex(SiteRepository siteRepo) {
+        this.siteRepo = siteRepo;
+        for (Field field : Field.values()) {
+            grams.put(field, new HashMap<>());
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.sites.search-refresh-ms:300000}",
+               fixedDelayString = "${app.sites.search-refresh-ms:300000}")
+    public synchronized void rebuild() {
+        List<Site> sites = siteRepo.findAll();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            grams.values().forEach(Map::clear);
+            words.clear();
+            sites.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Site search index rebuilt: {} sites", sites.size());
+    }
+
+    public synchronized void put(Site site) {
+        lock.writeLock().lock();
+        try {
+            unindex(site.getId());
+            add(site);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public synchronized void remove(Long siteId) {
+        lock.writeLock().lock();
+        try {
+            unindex(siteId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked free-text search. Every term of the query has to match some field; matches on
+     * a whole word beat word prefixes, which beat substrings, and name matches weigh most.
+     */
+    public List<Site> search(String query, int limit) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (Long id : candidates(term)) {
+                    int score = entries.get(id).score(term);
+                    if (score > 0) {
+                        termScores.put(id, score);
+                    }
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            Map<Long, Integer> ranked = scores;
+            return ranked.keySet().stream()
+                .map(entries::get)
+                .sorted(Comparator.<Entry>comparingInt(e -> -ranked.get(e.site.getId()))
+                    .thenComparing(e -> e.values.get(Field.NAME))
+                    .thenComparing(e -> e.site.getId()))
+                .limit(limit)
+                .map(e -> e.site)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sites with a word in their name, city, state or zip starting with the last term of
+     * {@code prefix}; earlier terms must match as in {@link #search}.
+     */
+    public List<Site> autocomplete(String prefix, int limit) {
+        List<String> terms = terms(prefix);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String last = terms.get(terms.size() - 1);
+        Set<Long> previous = null;
+        if (terms.size() > 1) {
+            previous = new HashSet<>();
+            for (Site site : search(String.join(" ", terms.subList(0, terms.size() - 1)), Integer.MAX_VALUE)) {
+                previous.add(site.getId());
+            }
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = wordPrefix(last);
+            if (previous != null) {
+                ids.retainAll(previous);
+            }
+            return ids.stream()
+                .map(entries::get)
+                .sorted(Comparator.<Entry>comparingInt(e -> e.startsWith(Field.NAME, last) ? 0 : 1)
+                    .thenComparing(e -> e.values.get(Field.NAME))
+                    .thenComparing(e -> e.site.getId()))
+                .limit(limit)
+                .map(e -> e.site)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Case-insensitive substring filter on city and state, like the old {@code LIKE}
+     * query; either may be {@code null}. Results are ordered by id.
+     */
+    public List<Site> filter(String city, String state) {
+        String cityTerm = city != null ? normalize(city) : "";
+        String stateTerm = state != null ? normalize(state) : "";
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = null;
+            if (!cityTerm.isEmpty()) {
+                ids = containing(Field.CITY, cityTerm, null);
+            }
+            if (!stateTerm.isEmpty()) {
+                ids = containing(Field.STATE, stateTerm, ids);
+            }
+            return (ids != null ? ids : entries.keySet()).stream()
+                .sorted()
+                .map(id -> entries.get(id).site)
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static List<String> terms(String query) {
+        if (query == null) {
+            return List.of();
+        }
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private Set<Long> candidates(String term) {
+        if (term.length() < 3) {
+            return wordPrefix(term);
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Field field : Field.values()) {
+            Set<Long> matched = gramIntersection(field, term);
+            if (matched != null) {
+                ids.addAll(matched);
+            }
+        }
+        return ids;
+    }
+
+    private Set<Long> wordPrefix(String prefix) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> posting : words.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            ids.addAll(posting);
+        }
+        return ids;
+    }
+
+    /**
+     * Ids whose {@code field} contains {@code term}, optionally within {@code within}.
+     */
+    private Set<Long> containing(Field field, String term, Set<Long> within) {
+        Set<Long> candidates = term.length() >= 3 ? gramIntersection(field, term) : null;
+        Set<Long> pool = candidates != null ? candidates : within != null ? within : entries.keySet();
+        Set<Long> ids = new HashSet<>();
+        for (Long id : pool) {
+            if ((within == null || within.contains(id)) && entries.get(id).values.get(field).contains(term)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Ids whose field holds every trigram of {@code term} (a superset of the substring
+     * matches), or an empty set.
+     */
+    private Set<Long> gramIntersection(Field field, String term) {
+        Map<String, Set<Long>> index = grams.get(field);
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : trigrams(term)) {
+            Set<Long> posting = index.get(gram);
+            if (posting == null) {
+                return Set.of();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> ids = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !ids.isEmpty(); i++) {
+            ids.retainAll(postings.get(i));
+        }
+        return ids;
+    }
+
+    private void add(Site site) {
+        Entry entry = new Entry(site);
+        entries.put(site.getId(), entry);
+        entry.values.forEach((field, value) -> {
+            for (String gram : trigrams(value)) {
+                grams.get(field).computeIfAbsent(gram, k -> new HashSet<>()).add(site.getId());
+            }
+            for (String word : value.split(" ")) {
+                if (!word.isEmpty()) {
+                    words.computeIfAbsent(word, k -> new HashSet<>()).add(site.getId());
+                }
+            }
+        });
+    }
+
+    private void unindex(Long siteId) {
+        Entry entry = entries.remove(siteId);
+        if (entry == null) {
+            return;
+        }
+        entry.values.forEach((field, value) -> {
+            Map<String, Set<Long>> index = grams.get(field);
+            for (String gram : trigrams(value)) {
+                removePosting(index, gram, siteId);
+            }
+            for (String word : value.split(" ")) {
+                removePosting(words, word, siteId);
+            }
+        });
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String key, Long siteId) {
+        Set<Long> posting = index.get(key);
+        if (posting != null && posting.remove(siteId) && posting.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static final class Entry {
+        private final Site site;
+        private final Map<Field, String> values = new EnumMap<>(Field.class);
+
+        private Entry(Site site) {
+            this.site = site;
+            values.put(Field.NAME, site.getName() != null ? normalize(site.getName()) : "");
+            values.put(Field.CITY, site.getCity() != null ? normalize(site.getCity()) : "");
+            values.put(Field.STATE, site.getState() != null ? normalize(site.getState()) : "");
+            values.put(Field.ZIP, site.getZip() != null ? normalize(site.getZip()) : "");
+        }
+
+        /**
+         * Best weighted match of {@code term} over the fields, or 0.
+         */
+        private int score(String term) {
+            int best = 0;
+            for (Map.Entry<Field, String> field : values.entrySet()) {
+                String value = field.getValue();
+                int quality;
+                if (value.equals(term) || (" " + value + " ").contains(" " + term + " ")) {
+                    quality = 3;
+                } else if (startsWith(field.getKey(), term)) {
+                    quality = 2;
+                } else if (value.contains(term)) {
+                    quality = 1;
+                } else {
+                    continue;
+                }
+                best = Math.max(best, quality * field.getKey().weight);
+            }
+            return best;
+        }
+
+        private boolean startsWith(Field field, String prefix) {
+            String value = values.get(field);
+            return value.startsWith(prefix) || value.contains(" " + prefix);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.pantrypulse.service;
 
+import com.pantrypulse.dto.NearbySite;
 import com.pantrypulse.model.Site;
 import com.pantrypulse.repository.SiteRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,23 +24,137 @@ public class SiteService {
     private final SiteRepository repo;
     private final AuditService auditService;
     private final EventService eventService;
+    private final QueueEngine queueEngine;
+    private final SiteSearchIndex searchIndex;
+    private final SiteGeoIndex geoIndex;
+    private final ZipCentroids zipCentroids;
+    private final StatusProjection statusProjection;
+    private final ResourceVersions versions;
 
     @Cacheable(value = "sites", key = "'all'")
     public List<Site> getAllSites() { return repo.findAll(); }
     
-    @Cacheable(value = "sites", key = "#city + '-' + #state + '-' + #pageable.pageNumber")
+    /**
+     * City/state substring filter answered from the search index, in the pageable's sort
+     * order (id when unsorted); the total comes from the same pass instead of a count query.
+     */
     public Page<Site> searchSites(String city, String state, Pageable pageable) {
-        return repo.searchSites(city, state, pageable);
+        List<Site> matches = searchIndex.filter(city, state);
+        if (pageable.getSort().isSorted()) {
+            matches = matches.stream().sorted(comparator(pageable.getSort())).toList();
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+    
+    public List<Site> searchText(String query, int limit) {
+        return searchIndex.search(query, Math.max(1, Math.min(limit, 100)));
+    }
+    
+    public List<Site> autocomplete(String prefix, int limit) {
+        return searchIndex.autocomplete(prefix, Math.max(1, Math.min(limit, 25)));
     }
     
     @Cacheable(value = "sites", key = "#id")
     public Optional<Site> getSiteById(Long id) { return repo.findById(id); }
     
+    /**
+     * Nearest sites to a point or ZIP centroid, nearest first; with {@code rankByQueue}
+     * the same sites are ordered by current waiting tokens, then distance. With
+     * {@code openOnly}, paused and closed sites are skipped and the search widens until
+     * {@code k} open sites are found or none are left.
+     */
+    public List<NearbySite> nearby(Double lat, Double lon, String zip, int k, Double radiusKm,
+                                   boolean rankByQueue, boolean openOnly) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (lat == null || lon == null) {
+            ZipCentroids.Point point = zipCentroids.lookup(zip)
+                .orElseThrow(() -> new IllegalArgumentException("Provide lat and lon, or a known zip"));
+            lat = point.latitude();
+            lon = point.longitude();
+        }
+        k = Math.min(k, 100);
+        List<SiteGeoIndex.Hit> hits;
+        if (radiusKm != null) {
+            hits = geoIndex.within(lat, lon, radiusKm);
+        } else {
+            int fetch = k;
+            do {
+                hits = geoIndex.nearest(lat, lon, fetch);
+                fetch *= 2;
+            } while (openOnly && hits.size() == fetch / 2 && hits.stream().filter(this::isOpen).count() < k);
+        }
+        List<NearbySite> result = hits.stream()
+            .filter(hit -> !openOnly || isOpen(hit))
+            .limit(k)
+            .map(hit -> new NearbySite(hit.site(), hit.distanceKm(), queueEngine.waitingCount(hit.site().getId())))
+            .toList();
+        if (rankByQueue) {
+            result = result.stream()
+                .sorted(Comparator.comparingInt(NearbySite::waitingTokens)
+                    .thenComparingDouble(NearbySite::distanceKm))
+                .toList();
+        }
+        return result;
+    }
+    
+    private boolean isOpen(SiteGeoIndex.Hit hit) {
+        String state = statusProjection.state(hit.site().getId());
+        return state == null || "OPEN".equalsIgnoreCase(state);
+    }
+
+    /**
+     * Compares sites by the sort's properties in order, nulls last, then by id.
+     */
+    private static Comparator<Site> comparator(Sort sort) {
+        Comparator<Site> result = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            java.beans.PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(Site.class, property);
+            if (descriptor == null || !Comparable.class.isAssignableFrom(descriptor.getPropertyType())) {
+                throw new IllegalArgumentException("Cannot sort sites by " + property);
+            }
+            Comparator<Site> byProperty = (a, b) -> compareValues(
+                new BeanWrapperImpl(a).getPropertyValue(property),
+                new BeanWrapperImpl(b).getPropertyValue(property),
+                order.isIgnoreCase(), order.isAscending());
+            result = result.thenComparing(byProperty);
+        }
+        return result.thenComparing(Site::getId);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b, boolean ignoreCase, boolean ascending) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        int compared = ignoreCase && a instanceof String sa && b instanceof String sb
+            ? sa.compareToIgnoreCase(sb)
+            : ((Comparable) a).compareTo(b);
+        return ascending ? compared : -compared;
+    }
+    
     @CacheEvict(value = "sites", allEntries = true)
     public Site saveSite(Site s) { 
+        if ((s.getLatitude() == null || s.getLongitude() == null) && s.getZip() != null) {
+            zipCentroids.lookup(s.getZip()).ifPresent(point -> {
+                s.setLatitude(point.latitude());
+                s.setLongitude(point.longitude());
+            });
+        }
         Site saved = repo.save(s);
+        queueEngine.evictSite(saved.getId());
+        searchIndex.put(saved);
+        geoIndex.put(saved);
         String action = (s.getId() == null) ? "CREATE" : "UPDATE";
         auditService.log(action, "Site", saved.getId(), "Site: " + saved.getName());
+        versions.changed(ResourceVersions.SITES);
         
         if (s.getId() == null) {
             eventService.publishEvent("site.created", "Site", saved.getId(),
@@ -50,7 +170,11 @@ public class SiteService {
     @CacheEvict(value = "sites", allEntries = true)
     public void deleteSite(Long id) { 
         repo.deleteById(id);
+        queueEngine.evictSite(id);
+        searchIndex.remove(id);
+        geoIndex.remove(id);
         auditService.log("DELETE", "Site", id, "Site deleted");
+        versions.changed(ResourceVersions.SITES);
         eventService.publishEvent("site.closed", "Site", id, java.util.Map.of("action", "deleted"));
     }
 }
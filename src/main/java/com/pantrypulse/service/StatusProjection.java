@@ -0,0 +1,267 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.model.Site;
+import com.pantrypulse.model.Status;
+import com.pantrypulse.model.SystemEvent;
+import com.pantrypulse.repository.SiteRepository;
+import com.pantrypulse.repository.StatusRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Live per-site status (state, queue length, service rate, now-serving token) kept in
+ * memory and versioned.
+ * <p>
+ * Loaded once from {@code site} and {@code status}, then updated from state changes
+ * saved through {@link StatusService} and from site and queue events; queue events carry
+ * the site's queue length and service rate, so every instance follows the queue. Every
+ * change bumps a global version, seeded from startup time so an ETag from before a
+ * restart never matches; each site also carries the version of its own last change. Rendered
+ * JSON is cached per version, so an unchanged poll costs neither database access nor
+ * serialization.
+ */
+@Component
+@Slf4j
+public class StatusProjection {
+
+    public record SiteStatus(
+        Long siteId,
+        String siteName,
+        String state,
+        int queueLen,
+        Double serviceRatePph,
+        String nowServing,
+        long version,
+        LocalDateTime updatedAt
+    ) {}
+
+    /**
+     * Serialized view with the version it was rendered from.
+     */
+    public record Rendered(long version, String etag, byte[] body) {}
+
+    private final SiteRepository siteRepo;
+    private final StatusRepository statusRepo;
+    private final QueueEngine queueEngine;
+    private final EventService eventService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, SiteStatus> sites = new ConcurrentHashMap<>();
+    private final Map<Long, Rendered> renderedSites = new ConcurrentHashMap<>();
+    // starts from the clock (microseconds) so versions keep rising across restarts
+    private long version = System.currentTimeMillis() * 1000;
+    private volatile Rendered renderedAll;
+    private Disposable subscription;
+
+    public StatusProjection(SiteRepository siteRepo,
+                            StatusRepository statusRepo,
+                            QueueEngine queueEngine,
+                            EventService eventService,
+                            ObjectMapper objectMapper) {
+        this.siteRepo = siteRepo;
+        this.statusRepo = statusRepo;
+        this.queueEngine = queueEngine;
+        this.eventService = eventService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() {
+        Map<Long, Status> rows = new HashMap<>();
+        for (Status status : statusRepo.findAll()) {
+            if (status.getSite() != null) {
+                rows.put(status.getSite().getId(), status);
+            }
+        }
+        synchronized (this) {
+            for (Site site : siteRepo.findAll()) {
+                Status row = rows.get(site.getId());
+                sites.put(site.getId(), new SiteStatus(site.getId(), site.getName(),
+                    row != null && row.getState() != null ? row.getState() : "OPEN",
+                    queueEngine.waitingCount(site.getId()),
+                    row != null ? row.getServiceRatePph() : null,
+                    null, ++version, LocalDateTime.now()));
+            }
+        }
+        subscription = eventService.getEventStream().subscribe(this::onEvent);
+        log.info("Status projection loaded for {} sites", sites.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Current state of a site (OPEN, PAUSED or CLOSED), or {@code null} for an unknown site.
+     */
+    public String state(Long siteId) {
+        SiteStatus status = sites.get(siteId);
+        return status != null ? status.state() : null;
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public String etag() {
+        return etag(version());
+    }
+
+    /**
+     * ETag of one site's status, or {@code null} for an unknown site.
+     */
+    public String etag(Long siteId) {
+        SiteStatus status = sites.get(siteId);
+        return status != null ? etag(status.version()) : null;
+    }
+
+    public Rendered renderAll() {
+        Rendered current = renderedAll;
+        long now = version();
+        if (current != null && current.version() == now) {
+            return current;
+        }
+        List<SiteStatus> snapshot;
+        long renderedVersion;
+        synchronized (this) {
+            renderedVersion = version;
+            snapshot = sites.values().stream()
+                .sorted(Comparator.comparing(SiteStatus::siteId))
+                .toList();
+        }
+        Rendered rendered = new Rendered(renderedVersion, etag(renderedVersion), toJson(snapshot));
+        renderedAll = rendered;
+        return rendered;
+    }
+
+    /**
+     * Rendered status of one site, or {@code null} for an unknown site.
+     */
+    public Rendered renderSite(Long siteId) {
+        SiteStatus status = sites.get(siteId);
+        if (status == null) {
+            return null;
+        }
+        Rendered current = renderedSites.get(siteId);
+        if (current != null && current.version() == status.version()) {
+            return current;
+        }
+        Rendered rendered = new Rendered(status.version(), etag(status.version()), toJson(status));
+        renderedSites.put(siteId, rendered);
+        return rendered;
+    }
+
+    private void recordQueue(Long siteId, int queueLen, double serviceRatePph) {
+        double rate = Math.round(serviceRatePph * 10) / 10.0;
+        update(siteId, s -> s.queueLen() == queueLen && Double.valueOf(rate).equals(s.serviceRatePph())
+            ? s
+            : new SiteStatus(s.siteId(), s.siteName(), s.state(), queueLen, rate, s.nowServing(), 0, null));
+    }
+
+    public void setState(Long siteId, String state) {
+        update(siteId, s -> state == null || state.equals(s.state())
+            ? s
+            : new SiteStatus(s.siteId(), s.siteName(), state, s.queueLen(), s.serviceRatePph(), s.nowServing(), 0, null));
+    }
+
+    void onEvent(SystemEvent event) {
+        try {
+            apply(event);
+        } catch (Exception e) {
+            log.warn("Skipping status update for event {}: {}", event.getEventType(), e.getMessage());
+        }
+    }
+
+    private void apply(SystemEvent event) {
+        Map<String, Object> data = event.getData();
+        if (event.getEventType().startsWith("queue.token.")
+                && data.get("queueLen") instanceof Number queueLen
+                && data.get("serviceRatePph") instanceof Number rate) {
+            recordQueue(event.getSiteId(), queueLen.intValue(), rate.doubleValue());
+        }
+        switch (event.getEventType()) {
+            case "site.created", "site.updated" -> {
+                String name = (String) data.get("name");
+                synchronized (this) {
+                    if (!sites.containsKey(event.getEntityId())) {
+                        sites.put(event.getEntityId(), new SiteStatus(event.getEntityId(), name, "OPEN",
+                            queueEngine.waitingCount(event.getEntityId()), null, null, ++version, LocalDateTime.now()));
+                        return;
+                    }
+                }
+                update(event.getEntityId(), s -> name == null || name.equals(s.siteName())
+                    ? s
+                    : new SiteStatus(s.siteId(), name, s.state(), s.queueLen(), s.serviceRatePph(), s.nowServing(), 0, null));
+            }
+            case "site.closed" -> {
+                synchronized (this) {
+                    if (sites.remove(event.getEntityId()) != null) {
+                        renderedSites.remove(event.getEntityId());
+                        version++;
+                    }
+                }
+            }
+            case "queue.token.called" -> {
+                String token = (String) data.get("tokenNumber");
+                update(event.getSiteId(), s -> new SiteStatus(s.siteId(), s.siteName(), s.state(),
+                    s.queueLen(), s.serviceRatePph(), token, 0, null));
+            }
+            case "queue.token.completed" -> {
+                String token = (String) data.get("tokenNumber");
+                update(event.getSiteId(), s -> token == null || !token.equals(s.nowServing())
+                    ? s
+                    : new SiteStatus(s.siteId(), s.siteName(), s.state(), s.queueLen(), s.serviceRatePph(), null, 0, null));
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Applies {@code change} to a site's status; returning the same instance means no
+     * change. Changed entries get the next version and a fresh timestamp.
+     */
+    private synchronized void update(Long siteId, UnaryOperator<SiteStatus> change) {
+        if (siteId == null) {
+            return;
+        }
+        SiteStatus current = sites.get(siteId);
+        if (current == null) {
+            return;
+        }
+        SiteStatus next = change.apply(current);
+        if (next == current) {
+            return;
+        }
+        version++;
+        sites.put(siteId, new SiteStatus(next.siteId(), next.siteName(), next.state(), next.queueLen(),
+            next.serviceRatePph(), next.nowServing(), version, LocalDateTime.now()));
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render status", e);
+        }
+    }
+}
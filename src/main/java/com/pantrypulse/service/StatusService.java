@@ -3,13 +3,78 @@ package com.pantrypulse.service;
 import com.pantrypulse.model.Status;
 import com.pantrypulse.repository.StatusRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class StatusService {
+    private static final String UPSERT_QUEUE_SQL =
+        "INSERT INTO status (site_id, state, queue_len, service_rate_pph) VALUES (?, 'OPEN', ?, ?) " +
+        "ON CONFLICT (site_id) DO UPDATE SET queue_len = EXCLUDED.queue_len, service_rate_pph = EXCLUDED.service_rate_pph";
+
     private final StatusRepository repo;
-    public List<Status> all() { return repo.findAll(); }
-    public Status save(Status s){ return repo.save(s); }
+    private final JdbcTemplate jdbc;
+    private final StatusProjection projection;
+    
+    // Latest queue figures per site, written out by flushQueueStats
+    private final Map<Long, QueueStats> pendingQueueStats = new ConcurrentHashMap<>();
+    
+    public Status save(Status s){ 
+        Status saved = repo.save(s);
+        if (saved.getSite() != null) {
+            projection.setState(saved.getSite().getId(), saved.getState());
+        }
+        return saved;
+    }
+    
+    /**
+     * Persisted service rates of every site that has one, read once at startup so rate
+     * lookups never go to the database on the queue path.
+     */
+    public Map<Long, Double> serviceRates() {
+        Map<Long, Double> rates = new HashMap<>();
+        try {
+            jdbc.query("SELECT site_id, service_rate_pph FROM status WHERE site_id IS NOT NULL AND service_rate_pph > 0",
+                rs -> { rates.put(rs.getLong("site_id"), rs.getDouble("service_rate_pph")); });
+        } catch (DataAccessException e) {
+            log.warn("Could not load persisted service rates, starting from defaults: {}", e.getMessage());
+        }
+        return rates;
+    }
+    
+    /**
+     * Records a site's current queue length and service rate for the {@code status} table.
+     * Only the latest figures per site are kept and written on the next flush, so queue
+     * traffic does not turn into one status write per token. The live projection gets the
+     * same figures from the queue events instead.
+     */
+    public void recordQueue(Long siteId, int queueLen, double serviceRatePph) {
+        pendingQueueStats.put(siteId, new QueueStats(queueLen, serviceRatePph));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.queue.status-flush-ms:5000}")
+    public synchronized void flushQueueStats() {
+        for (Long siteId : pendingQueueStats.keySet()) {
+            QueueStats stats = pendingQueueStats.remove(siteId);
+            if (stats == null) {
+                continue;
+            }
+            try {
+                // one row per site (uq_status_site): a site's first flush inserts it as OPEN
+                jdbc.update(UPSERT_QUEUE_SQL, siteId, stats.queueLen(), Math.round(stats.serviceRatePph() * 10) / 10.0);
+            } catch (Exception e) {
+                log.warn("Could not update queue status for site {}: {}", siteId, e.getMessage());
+            }
+        }
+    }
+    
+    private record QueueStats(int queueLen, double serviceRatePph) {}
 }
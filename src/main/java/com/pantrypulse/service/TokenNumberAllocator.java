@@ -0,0 +1,78 @@
+package com.pantrypulse.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out per-site, per-day token sequence numbers.
+ * <p>
+ * Numbers are reserved hi-lo style: each instance atomically bumps the
+ * {@code token_sequence} counter row by a whole block and then serves the block
+ * from memory, so most allocations are an in-memory increment and numbers stay
+ * unique across instances. Numbers left in a block at shutdown are skipped.
+ */
+@Component
+public class TokenNumberAllocator {
+
+    private static final String RESERVE_SQL =
+        "INSERT INTO token_sequence (seq_key, reserved) VALUES (?, ?) " +
+        "ON CONFLICT (seq_key) DO UPDATE SET reserved = token_sequence.reserved + EXCLUDED.reserved " +
+        "RETURNING reserved";
+
+    /**
+     * Reserves {@code size} numbers for a key and returns the highest one reserved.
+     */
+    @FunctionalInterface
+    public interface BlockReserver {
+        long reserve(String seqKey, int size);
+    }
+
+    private final BlockReserver reserver;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenNumberAllocator(JdbcTemplate jdbc,
+                                @Value("${app.queue.token-block-size:20}") int blockSize) {
+        this((seqKey, size) -> jdbc.queryForObject(RESERVE_SQL, Long.class, seqKey, size), blockSize);
+    }
+
+    public TokenNumberAllocator(BlockReserver reserver, int blockSize) {
+        this.reserver = reserver;
+        this.blockSize = blockSize;
+    }
+
+    public long next(Long siteId, LocalDate day) {
+        String key = siteId + ":" + day;
+        Block block = blocks.computeIfAbsent(key, k -> new Block());
+        synchronized (block) {
+            if (block.next > block.max) {
+                long max = reserver.reserve(key, blockSize);
+                block.next = max - blockSize + 1;
+                block.max = max;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Drops blocks for earlier days so the map does not grow across days.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictPastDays() {
+        String today = ":" + LocalDate.now();
+        blocks.keySet().removeIf(key -> !key.endsWith(today));
+    }
+
+    private static final class Block {
+        private long next = 1;
+        private long max = 0;
+    }
+}
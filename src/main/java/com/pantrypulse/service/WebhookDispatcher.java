@@ -0,0 +1,280 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.model.Webhook;
+import com.pantrypulse.model.WebhookDeadLetter;
+import com.pantrypulse.repository.WebhookDeadLetterRepository;
+import com.pantrypulse.repository.WebhookRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking webhook delivery on {@link WebClient}.
+ * <p>
+ * Every endpoint URL gets its own bounded queue drained with at most
+ * {@code max-concurrency-per-endpoint} requests in flight, so a slow subscriber only
+ * delays its own deliveries. Connection failures, timeouts, 429 and 5xx responses are
+ * retried with exponential backoff and jitter; deliveries that exhaust their retries,
+ * get a non-retryable response, or find their endpoint queue full are written to
+ * {@code webhook_dead_letter}. Queues of URLs no webhook uses any more are retired by
+ * {@link #retainEndpoints} once they have drained.
+ * <p>
+ * Queue-to-outcome latency is timed as {@code pantrypulse.webhook.delivery} with
+ * {@code outcome=delivered|dead_lettered}; retries, in-flight requests and endpoints are
+ * exported alongside.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+
+    private final WebClient client;
+    private final WebhookRepository webhookRepo;
+    private final WebhookDeadLetterRepository deadLetterRepo;
+    private final ObjectMapper objectMapper;
+    private final int concurrencyPerEndpoint;
+    private final int queueCapacity;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    // queue-to-delivery latency in microseconds, for the percentiles in stats()
+    private final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+    private final Timer deliveredTimer;
+    private final Timer deadLetteredTimer;
+
+    public WebhookDispatcher(WebClient.Builder builder,
+                             WebhookRepository webhookRepo,
+                             WebhookDeadLetterRepository deadLetterRepo,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.webhooks.connect-timeout-ms:2000}") int connectTimeoutMs,
+                             @Value("${app.webhooks.read-timeout-ms:5000}") long readTimeoutMs,
+                             @Value("${app.webhooks.max-concurrency-per-endpoint:4}") int concurrencyPerEndpoint,
+                             @Value("${app.webhooks.queue-capacity:256}") int queueCapacity,
+                             @Value("${app.webhooks.max-retries:5}") int maxRetries,
+                             @Value("${app.webhooks.initial-backoff-ms:200}") long initialBackoffMs,
+                             @Value("${app.webhooks.max-backoff-ms:30000}") long maxBackoffMs) {
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        this.client = builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        this.webhookRepo = webhookRepo;
+        this.deadLetterRepo = deadLetterRepo;
+        this.objectMapper = objectMapper;
+        this.concurrencyPerEndpoint = concurrencyPerEndpoint;
+        this.queueCapacity = queueCapacity;
+        this.maxRetries = maxRetries;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.deliveredTimer = deliveryTimer(meterRegistry, "delivered");
+        this.deadLetteredTimer = deliveryTimer(meterRegistry, "dead_lettered");
+        FunctionCounter.builder("pantrypulse.webhook.retries", retries, AtomicLong::get)
+            .description("Webhook delivery attempts after the first")
+            .register(meterRegistry);
+        Gauge.builder("pantrypulse.webhook.in.flight", this, WebhookDispatcher::inFlight)
+            .description("Webhook requests currently in flight")
+            .register(meterRegistry);
+        Gauge.builder("pantrypulse.webhook.endpoints", endpoints, Map::size)
+            .description("Webhook endpoint URLs with a delivery queue")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues one delivery and returns immediately.
+     */
+    public void dispatch(Webhook hook, String eventType, Map<String, Object> payload) {
+        Map<String, Object> body = Map.of(
+            "event", eventType,
+            "timestamp", LocalDateTime.now().toString(),
+            "data", payload
+        );
+        Delivery delivery = new Delivery(hook.getId(), hook.getUrl(), eventType, body, System.nanoTime());
+        while (true) {
+            Endpoint endpoint = endpoints.computeIfAbsent(hook.getUrl(), Endpoint::new);
+            Sinks.EmitResult result = endpoint.offer(delivery);
+            if (result == Sinks.EmitResult.FAIL_TERMINATED) {
+                // retired between lookup and offer; the URL is in use again
+                endpoints.remove(hook.getUrl(), endpoint);
+                continue;
+            }
+            if (result.isFailure()) {
+                deadLetter(delivery, 0, "Endpoint queue full");
+            }
+            return;
+        }
+    }
+
+    /**
+     * Retires the queues of URLs not in {@code urls}: they take no new deliveries, finish
+     * the ones already queued and are then dropped. Called whenever the webhook routes are
+     * rebuilt.
+     */
+    public void retainEndpoints(Set<String> urls) {
+        endpoints.values().stream()
+            .filter(endpoint -> !urls.contains(endpoint.url))
+            .forEach(Endpoint::retire);
+    }
+
+    public Map<String, Object> stats() {
+        long count = delivered.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("endpoints", endpoints.size());
+        stats.put("inFlight", inFlight());
+        stats.put("delivered", count);
+        stats.put("retries", retries.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("avgLatencyMillis", count > 0 ? latencyMicros.getMean() / 1e3 : 0.0);
+        stats.put("p50LatencyMillis", latencyMicros.getValueAtPercentile(50) / 1e3);
+        stats.put("p99LatencyMillis", latencyMicros.getValueAtPercentile(99) / 1e3);
+        stats.put("maxLatencyMillis", latencyMicros.getMaxValue() / 1e3);
+        return stats;
+    }
+
+    private int inFlight() {
+        return endpoints.values().stream().mapToInt(e -> e.inFlight.get()).sum();
+    }
+
+    @PreDestroy
+    void stop() {
+        endpoints.values().forEach(endpoint -> endpoint.subscription.dispose());
+    }
+
+    private Mono<Void> deliver(Delivery delivery, Endpoint endpoint) {
+        AtomicInteger attempts = new AtomicInteger();
+        return Mono.defer(() -> {
+                if (attempts.incrementAndGet() > 1) {
+                    retries.incrementAndGet();
+                }
+                return client.post()
+                    .uri(delivery.url())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(delivery.body())
+                    .retrieve()
+                    .toBodilessEntity();
+            })
+            .retryWhen(Retry.backoff(maxRetries, initialBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(WebhookDispatcher::isRetryable))
+            .doOnSubscribe(s -> endpoint.inFlight.incrementAndGet())
+            .doFinally(signal -> endpoint.inFlight.decrementAndGet())
+            .flatMap(response -> Mono.fromRunnable(() -> onDelivered(delivery))
+                .subscribeOn(Schedulers.boundedElastic()))
+            .onErrorResume(e -> {
+                Throwable cause = Exceptions.isRetryExhausted(e) ? e.getCause() : e;
+                return Mono.fromRunnable(() -> deadLetter(delivery, attempts.get(), cause.toString()))
+                    .subscribeOn(Schedulers.boundedElastic());
+            })
+            .then();
+    }
+
+    private void onDelivered(Delivery delivery) {
+        long latency = System.nanoTime() - delivery.queuedAt();
+        delivered.incrementAndGet();
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latency), latencyMicros.getHighestTrackableValue()));
+        deliveredTimer.record(latency, TimeUnit.NANOSECONDS);
+        try {
+            webhookRepo.markTriggered(delivery.webhookId(), LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Could not record delivery time for webhook {}: {}", delivery.webhookId(), e.getMessage());
+        }
+        log.info("Webhook sent: event={} url={}", delivery.eventType(), delivery.url());
+    }
+
+    private void deadLetter(Delivery delivery, int attempts, String error) {
+        deadLettered.incrementAndGet();
+        deadLetteredTimer.record(System.nanoTime() - delivery.queuedAt(), TimeUnit.NANOSECONDS);
+        log.error("Failed to send webhook to {} after {} attempts: {}", delivery.url(), attempts, error);
+        try {
+            deadLetterRepo.save(WebhookDeadLetter.builder()
+                .webhookId(delivery.webhookId())
+                .url(delivery.url())
+                .eventType(delivery.eventType())
+                .payload(objectMapper.writeValueAsString(delivery.body()))
+                .attempts(attempts)
+                .lastError(error)
+                .build());
+        } catch (Exception e) {
+            log.error("Failed to store dead letter for {}", delivery.url(), e);
+        }
+    }
+
+    private static Timer deliveryTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("pantrypulse.webhook.delivery")
+            .tag("outcome", outcome)
+            .description("Time from queueing a webhook to its delivery or dead-lettering")
+            .register(registry);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private record Delivery(Long webhookId, String url, String eventType,
+                            Map<String, Object> body, long queuedAt) { }
+
+    private final class Endpoint {
+        private final String url;
+        private final Sinks.Many<Delivery> queue =
+            Sinks.many().unicast().onBackpressureBuffer(Queues.<Delivery>get(queueCapacity).get());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Disposable subscription;
+
+        private Endpoint(String url) {
+            this.url = url;
+            this.subscription = queue.asFlux()
+                .flatMap(delivery -> deliver(delivery, this), concurrencyPerEndpoint)
+                .doFinally(signal -> endpoints.remove(url, this))
+                .subscribe();
+        }
+
+        private synchronized Sinks.EmitResult offer(Delivery delivery) {
+            return queue.tryEmitNext(delivery);
+        }
+
+        private synchronized void retire() {
+            queue.tryEmitComplete();
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.pantrypulse.service;
 
 import com.pantrypulse.model.Webhook;
+import com.pantrypulse.model.WebhookDeadLetter;
+import com.pantrypulse.repository.WebhookDeadLetterRepository;
 import com.pantrypulse.repository.WebhookRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,7 +26,11 @@ import java.util.Map;
 public class WebhookService {
     
     private final WebhookRepository webhookRepo;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final WebhookDeadLetterRepository deadLetterRepo;
+    private final WebhookDispatcher dispatcher;
+    
+    // Event type -> active subscribers; replaced wholesale, never mutated in place
+    private volatile Map<String, List<Webhook>> routes = Map.of();
     
     public Webhook registerWebhook(String url, List<String> events, String description) {
         Webhook webhook = Webhook.builder()
@@ -31,7 +40,9 @@ public class WebhookService {
             .active(true)
             .build();
         
-        return webhookRepo.save(webhook);
+        Webhook saved = webhookRepo.save(webhook);
+        rebuildRoutes();
+        return saved;
     }
     
     public List<Webhook> getAllWebhooks() {
@@ -42,41 +53,52 @@ public class WebhookService {
         Webhook webhook = webhookRepo.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Webhook not found: " + id));
         webhook.setActive(active);
-        return webhookRepo.save(webhook);
+        Webhook saved = webhookRepo.save(webhook);
+        rebuildRoutes();
+        return saved;
     }
     
     public void deleteWebhook(Long id) {
         webhookRepo.deleteById(id);
+        rebuildRoutes();
     }
     
-    @Async
-    public void triggerEvent(String eventType, Map<String, Object> payload) {
-        List<Webhook> hooks = webhookRepo.findActiveByEvent(eventType);
-        
-        for (Webhook hook : hooks) {
-            try {
-                sendWebhook(hook, eventType, payload);
-                hook.setLastTriggeredAt(LocalDateTime.now());
-                webhookRepo.save(hook);
-            } catch (Exception e) {
-                log.error("Failed to send webhook to {}: {}", hook.getUrl(), e.getMessage());
+    /**
+     * Rebuilds the routing index from the active webhooks and swaps it in atomically.
+     * Also runs periodically so subscription changes made by other instances are picked up.
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.webhooks.routes-refresh-ms:60000}",
+               fixedDelayString = "${app.webhooks.routes-refresh-ms:60000}")
+    public synchronized void rebuildRoutes() {
+        Map<String, List<Webhook>> next = new HashMap<>();
+        for (Webhook hook : webhookRepo.findByActiveTrue()) {
+            for (String event : hook.getEvents()) {
+                next.computeIfAbsent(event, k -> new ArrayList<>()).add(hook);
             }
         }
+        next.replaceAll((event, hooks) -> List.copyOf(hooks));
+        routes = Map.copyOf(next);
+        Set<String> urls = new HashSet<>();
+        next.values().forEach(hooks -> hooks.forEach(hook -> urls.add(hook.getUrl())));
+        dispatcher.retainEndpoints(urls);
+        log.debug("Webhook routes rebuilt: {} event types", next.size());
     }
     
-    private void sendWebhook(Webhook hook, String eventType, Map<String, Object> payload) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        Map<String, Object> body = Map.of(
-            "event", eventType,
-            "timestamp", LocalDateTime.now().toString(),
-            "data", payload
-        );
-        
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
-        restTemplate.postForEntity(hook.getUrl(), request, String.class);
+    public Page<WebhookDeadLetter> getDeadLetters(Pageable pageable) {
+        return deadLetterRepo.findAllByOrderByFailedAtDesc(pageable);
+    }
+    
+    public Map<String, Object> getDeliveryStats() {
+        return dispatcher.stats();
+    }
+    
+    @Async
+    public void triggerEvent(String eventType, Map<String, Object> payload) {
+        List<Webhook> hooks = routes.getOrDefault(eventType, List.of());
         
-        log.info("Webhook sent: event={} url={}", eventType, hook.getUrl());
+        for (Webhook hook : hooks) {
+            dispatcher.dispatch(hook, eventType, payload);
+        }
     }
 }
@@ -0,0 +1,104 @@
+package com.pantrypulse.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline ZIP code to centroid lookup, loaded once from {@code app.geo.zip-centroids}.
+ * <p>
+ * Reads either a comma-separated {@code zip,latitude,longitude} file or the tab-separated
+ * Census ZCTA gazetteer ({@code GEOID ... INTPTLAT INTPTLONG}); columns are found by
+ * header name. Lines starting with {@code #} are skipped.
+ */
+@Component
+@Slf4j
+public class ZipCentroids {
+
+    public record Point(double latitude, double longitude) {}
+
+    private final Resource source;
+    private final Map<String, Point> centroids = new HashMap<>();
+
+    public ZipCentroids(@Value("${app.geo.zip-centroids:classpath:geo/zip-centroids.csv}") Resource source) {
+        this.source = source;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!source.exists()) {
+            log.warn("ZIP centroid file {} not found; sites without coordinates will not be placed", source);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int[] columns = null;
+            String separator = ",";
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (columns == null) {
+                    separator = line.contains("\t") ? "\t" : ",";
+                    columns = columns(line.split(separator));
+                    continue;
+                }
+                String[] parts = line.split(separator);
+                try {
+                    centroids.put(parts[columns[0]].trim(), new Point(
+                        Double.parseDouble(parts[columns[1]].trim()),
+                        Double.parseDouble(parts[columns[2]].trim())));
+                } catch (RuntimeException e) {
+                    log.debug("Skipping ZIP centroid line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not read ZIP centroid file {}", source, e);
+        }
+        log.info("Loaded {} ZIP centroids from {}", centroids.size(), source);
+    }
+
+    /**
+     * Centroid of a 5-digit ZIP (a ZIP+4 is cut to its first five digits).
+     */
+    public Optional<Point> lookup(String zip) {
+        if (zip == null || zip.length() < 5) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(centroids.get(zip.substring(0, 5)));
+    }
+
+    public int size() {
+        return centroids.size();
+    }
+
+    private static int[] columns(String[] header) {
+        int zip = -1;
+        int lat = -1;
+        int lon = -1;
+        for (int i = 0; i < header.length; i++) {
+            switch (header[i].trim().toLowerCase(Locale.ROOT)) {
+                case "zip", "zcta5", "geoid" -> zip = i;
+                case "latitude", "lat", "intptlat" -> lat = i;
+                case "longitude", "lon", "lng", "intptlong" -> lon = i;
+                default -> { }
+            }
+        }
+        if (zip < 0 || lat < 0 || lon < 0) {
+            throw new IllegalArgumentException("ZIP centroid header needs zip, latitude and longitude columns");
+        }
+        return new int[] { zip, lat, lon };
+    }
+}
@@ -9,9 +9,13 @@ CREATE TABLE IF NOT EXISTS site (
   address VARCHAR(255),
   city VARCHAR(100),
   state VARCHAR(2),
-  zip VARCHAR(20)
+  zip VARCHAR(20),
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION
 );
 
+ALTER TABLE site ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE site ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
 ALTER TABLE site ALTER COLUMN id SET DEFAULT nextval('site_id_seq');
 ALTER SEQUENCE site_id_seq OWNED BY site.id;
 SELECT setval('site_id_seq',
@@ -26,9 +30,20 @@ CREATE TABLE IF NOT EXISTS inventory_item (
   name VARCHAR(255),
   tags TEXT,
   qty INTEGER,
-  unit VARCHAR(50)
+  unit VARCHAR(50),
+  reorder_threshold INTEGER
 );
 
+ALTER TABLE inventory_item ADD COLUMN IF NOT EXISTS reorder_threshold INTEGER;
+-- Serves site-scoped low-stock lookups and their (qty, id) keyset order
+CREATE INDEX IF NOT EXISTS idx_inventory_item_site_qty ON inventory_item (site_id, qty);
+-- MAX(reorder_threshold), overall and per site, bounds the low-stock scans; both are index lookups
+CREATE INDEX IF NOT EXISTS idx_inventory_item_threshold ON inventory_item (reorder_threshold);
+CREATE INDEX IF NOT EXISTS idx_inventory_item_site_threshold ON inventory_item (site_id, reorder_threshold);
+-- One row per SKU at a site; bulk imports upsert on it. Databases holding duplicates
+-- need db/dedupe-inventory-item-and-status.sql first
+CREATE UNIQUE INDEX IF NOT EXISTS uq_inventory_item_site_sku ON inventory_item (site_id, sku);
+
 -- Queue Token table
 CREATE TABLE IF NOT EXISTS queue_token (
   id BIGSERIAL PRIMARY KEY,
@@ -43,6 +58,15 @@ CREATE TABLE IF NOT EXISTS queue_token (
   completed_at TIMESTAMP
 );
 
+-- Keyset order for a site's token history
+CREATE INDEX IF NOT EXISTS idx_queue_token_site_created ON queue_token (site_id, created_at DESC, id DESC);
+
+-- Per-site, per-day token number counters (reserved in blocks by each app instance)
+CREATE TABLE IF NOT EXISTS token_sequence (
+  seq_key VARCHAR(64) PRIMARY KEY,
+  reserved BIGINT NOT NULL
+);
+
 -- Audit Log table
 CREATE TABLE IF NOT EXISTS audit_log (
   id BIGSERIAL PRIMARY KEY,
@@ -54,6 +78,9 @@ CREATE TABLE IF NOT EXISTS audit_log (
   timestamp TIMESTAMP NOT NULL
 );
 
+-- Keyset order for audit history
+CREATE INDEX IF NOT EXISTS idx_audit_log_timestamp ON audit_log (timestamp DESC, id DESC);
+
 -- Webhook table
 CREATE TABLE IF NOT EXISTS webhook (
   id BIGSERIAL PRIMARY KEY,
@@ -69,6 +96,18 @@ CREATE TABLE IF NOT EXISTS webhook_events (
   event_type VARCHAR(100)
 );
 
+-- Webhook deliveries that failed after all retries
+CREATE TABLE IF NOT EXISTS webhook_dead_letter (
+  id BIGSERIAL PRIMARY KEY,
+  webhook_id BIGINT,
+  url VARCHAR(500) NOT NULL,
+  event_type VARCHAR(100),
+  payload TEXT,
+  attempts INTEGER,
+  last_error TEXT,
+  failed_at TIMESTAMP NOT NULL
+);
+
 -- Status table (if exists from original schema)
 CREATE TABLE IF NOT EXISTS status (
   id BIGSERIAL PRIMARY KEY,
@@ -78,6 +117,29 @@ CREATE TABLE IF NOT EXISTS status (
   updated_at TIMESTAMP
 );
 
+-- Columns of the Status entity; queue_len and service_rate_pph follow the live queue
+ALTER TABLE status ADD COLUMN IF NOT EXISTS state VARCHAR(20);
+ALTER TABLE status ADD COLUMN IF NOT EXISTS queue_len INTEGER;
+ALTER TABLE status ADD COLUMN IF NOT EXISTS service_rate_pph DOUBLE PRECISION;
+-- One status row per site; flushQueueStats upserts on it (see the same migration)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_status_site ON status (site_id);
+
+-- Events written in the transaction that caused them; after commit every instance's EventOutbox
+-- broadcasts them locally (tailing by id) and one instance claims them for webhooks (published_at)
+CREATE TABLE IF NOT EXISTS event_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  event_type VARCHAR(100) NOT NULL,
+  entity VARCHAR(100),
+  entity_id BIGINT,
+  site_id BIGINT,
+  data TEXT,
+  created_at TIMESTAMP NOT NULL,
+  published_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_event_outbox_pending ON event_outbox (id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_event_outbox_published ON event_outbox (published_at) WHERE published_at IS NOT NULL;
+
 -- Seed data (idempotent)
 INSERT INTO site (id, name, address, city, state, zip) VALUES
     (1, 'Westside Pantry', '123 Oak Ave', 'Austin', 'TX', '78701')
@@ -0,0 +1,95 @@
+package com.pantrypulse;
+
+import com.pantrypulse.service.JwtService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the application against embedded Postgres with security on and scrapes
+ * {@code /actuator/prometheus} as an admin.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.security.open=false",
+    "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("dev")
+class PrometheusScrapeTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    private TestRestTemplate http;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void prometheusExportsApplicationMeters() {
+        // a service call, so pantrypulse.service has a timer to export
+        assertThat(http.getForEntity("/api/v1/sites", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> scrape = get("/actuator/prometheus", "ROLE_ADMIN");
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+            .contains("pantrypulse_service_seconds")
+            .contains("pantrypulse_webhook_delivery_seconds")
+            .contains("pantrypulse_sse_subscribers")
+            .contains("cache_gets");
+    }
+
+    @Test
+    void metricsEndpointsAreAdminOnlyAndProbesArePublic() {
+        assertThat(get("/actuator/prometheus", null).getStatusCode().is4xxClientError()).isTrue();
+        assertThat(get("/actuator/metrics", null).getStatusCode().is4xxClientError()).isTrue();
+        assertThat(get("/actuator/prometheus", "ROLE_OPERATOR").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(get("/actuator/metrics", "ROLE_ADMIN").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/actuator/health", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> get(String path, String role) {
+        HttpHeaders headers = new HttpHeaders();
+        if (role != null) {
+            headers.setBearerAuth(jwtService.issue("scraper@pantrypulse.io", Map.of("role", role)));
+        }
+        return http.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
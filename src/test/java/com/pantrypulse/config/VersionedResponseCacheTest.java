@@ -0,0 +1,42 @@
+package com.pantrypulse.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedResponseCacheTest {
+
+    private final VersionedResponseCache cache = new VersionedResponseCache(new ObjectMapper(), 2);
+
+    @Test
+    void gzipIsServedOnlyWhenAcceptedWithNonZeroQuality() {
+        assertThat(VersionedResponseCache.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(VersionedResponseCache.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(VersionedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(VersionedResponseCache.acceptsGzip("gzip; q=0.000, identity")).isFalse();
+        assertThat(VersionedResponseCache.acceptsGzip("x-gzip-ish, deflate")).isFalse();
+        assertThat(VersionedResponseCache.acceptsGzip(null)).isFalse();
+
+        ResponseEntity<byte[]> refused = cache.respond("metrics", 1, null, "gzip;q=0", () -> Map.of("a", 1));
+        assertThat(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        ResponseEntity<byte[]> zipped = cache.respond("metrics", 1, null, "gzip", () -> Map.of("a", 1));
+        assertThat(zipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    void unchangedVersionIsAnsweredWithNotModified() {
+        String etag = cache.respond("metrics", 7, null, null, () -> Map.of("a", 1)).getHeaders().getETag();
+
+        ResponseEntity<byte[]> again = cache.respond("metrics", 7, etag, null, () -> {
+            throw new AssertionError("rendered twice");
+        });
+
+        assertThat(again.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
@@ -0,0 +1,174 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.model.SystemEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two outbox relays on one embedded Postgres, standing in for two instances: both
+ * broadcast every event, webhooks fire once per event, and a row that commits after a
+ * higher id is broadcast in id order, while a rolled-back id holds the rows behind it
+ * back only for the hold time.
+ */
+class EventOutboxTest {
+
+    private static final long HOLD_MS = 1_000;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbc;
+    private static DataSourceTransactionManager transactionManager;
+
+    private final Node first = new Node();
+    private final Node second = new Node();
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        transactionManager = new DataSourceTransactionManager(postgres.getPostgresDatabase());
+        jdbc.execute("CREATE TABLE event_outbox (id BIGSERIAL PRIMARY KEY, event_type VARCHAR(100) NOT NULL, " +
+            "entity VARCHAR(100), entity_id BIGINT, site_id BIGINT, data TEXT, created_at TIMESTAMP NOT NULL, " +
+            "published_at TIMESTAMP)");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void start() {
+        jdbc.update("DELETE FROM event_outbox");
+        first.start();
+        second.start();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        first.outbox.stop();
+        second.outbox.stop();
+    }
+
+    @Test
+    void everyInstanceBroadcastsAndWebhooksFireOnce() {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < 500; i++) {
+            long id = i;
+            Node writer = i % 2 == 0 ? first : second;
+            transactions.executeWithoutResult(status -> writer.outbox.append(event(id)));
+        }
+
+        await(() -> first.broadcast.size() == 500 && second.broadcast.size() == 500, 10_000);
+        await(() -> first.webhooks.size() + second.webhooks.size() == 500, 10_000);
+        assertThat(first.broadcast).extracting(SystemEvent::getEntityId).doesNotHaveDuplicates();
+        assertThat(second.broadcast).extracting(SystemEvent::getEntityId).doesNotHaveDuplicates();
+        List<Long> hooked = new CopyOnWriteArrayList<>();
+        first.webhooks.forEach(event -> hooked.add(event.getEntityId()));
+        second.webhooks.forEach(event -> hooked.add(event.getEntityId()));
+        assertThat(hooked).doesNotHaveDuplicates().hasSize(500);
+    }
+
+    @Test
+    void rowCommittedAfterAHigherIdIsBroadcastInIdOrder() throws Exception {
+        try (Connection slow = postgres.getPostgresDatabase().getConnection()) {
+            slow.setAutoCommit(false);
+            insert(slow, 1);
+            // id 2 commits while id 1 is still open; the relays read it but hold it back
+            first.outbox.append(event(2));
+            Thread.sleep(HOLD_MS / 2);
+            assertThat(first.broadcast).isEmpty();
+            assertThat(second.broadcast).isEmpty();
+            slow.commit();
+        }
+        first.outbox.append(event(3));
+
+        await(() -> first.broadcast.size() == 3 && second.broadcast.size() == 3, 5_000);
+        assertThat(first.broadcast).extracting(SystemEvent::getEntityId).containsExactly(1L, 2L, 3L);
+        assertThat(second.broadcast).extracting(SystemEvent::getEntityId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void rolledBackIdHoldsLaterRowsOnlyForTheHoldTime() throws Exception {
+        try (Connection aborted = postgres.getPostgresDatabase().getConnection()) {
+            aborted.setAutoCommit(false);
+            insert(aborted, 1);
+            first.outbox.append(event(2));
+            aborted.rollback();
+        }
+
+        await(() -> first.broadcast.size() == 1 && second.broadcast.size() == 1, HOLD_MS + 5_000);
+        assertThat(first.broadcast).extracting(SystemEvent::getEntityId).containsExactly(2L);
+        assertThat(second.broadcast).extracting(SystemEvent::getEntityId).containsExactly(2L);
+    }
+
+    private static SystemEvent event(long entityId) {
+        return SystemEvent.builder()
+            .eventType("inventory.updated")
+            .entity("InventoryItem")
+            .entityId(entityId)
+            .siteId(1L)
+            .data(Map.of("siteId", 1))
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+
+    private static void insert(Connection connection, long entityId) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO event_outbox " +
+                "(event_type, entity, entity_id, site_id, data, created_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+            insert.setString(1, "inventory.updated");
+            insert.setString(2, "InventoryItem");
+            insert.setLong(3, entityId);
+            insert.setLong(4, 1L);
+            insert.setString(5, "{\"siteId\":1}");
+            insert.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within " + timeoutMs + " ms");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Node {
+        private final List<SystemEvent> broadcast = new CopyOnWriteArrayList<>();
+        private final List<SystemEvent> webhooks = new CopyOnWriteArrayList<>();
+        private final EventOutbox outbox = new EventOutbox(jdbc, transactionManager, new ObjectMapper(),
+            new SimpleMeterRegistry(), 50, 20, 24, 5_000, HOLD_MS);
+
+        private void start() {
+            outbox.relayTo(id -> { }, broadcast::add, webhooks::add);
+            outbox.start();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.dto.EventFilter;
+import com.pantrypulse.model.SystemEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resuming SSE streams by outbox id: from the replay buffer, from the outbox table when
+ * the buffer no longer has the events, and with a resync when neither has them. Backlog
+ * limits count only the events a subscriber's filter lets through.
+ */
+class EventServiceTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final EventOutbox outbox = mock(EventOutbox.class);
+    private EventService events;
+    private Consumer<SystemEvent> broadcast;
+
+    @SuppressWarnings("unchecked")
+    private void relay(int replayBufferSize, int subscriberBufferSize) {
+        events = new EventService(mock(WebhookService.class), new EventReplayBuffer(replayBufferSize), outbox,
+            new SimpleMeterRegistry(), subscriberBufferSize, "drop-oldest");
+        ArgumentCaptor<LongConsumer> start = ArgumentCaptor.forClass(LongConsumer.class);
+        ArgumentCaptor<Consumer<SystemEvent>> emit = ArgumentCaptor.forClass(Consumer.class);
+        verify(outbox).relayTo(start.capture(), emit.capture(), any());
+        start.getValue().accept(100);
+        broadcast = emit.getValue();
+        when(outbox.newestId()).thenReturn(200L);
+    }
+
+    @Test
+    void resumesFromTheReplayBufferThenFollowsLiveEvents() {
+        relay(4, 16);
+        // 102 was rolled back
+        broadcast(101, 103, 104);
+
+        List<Long> received = received(101L, 3, () -> broadcast(105));
+
+        assertThat(received).containsExactly(103L, 104L, 105L);
+        verify(outbox, never()).history(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void readsEventsOlderThanTheBufferFromTheOutbox() {
+        relay(4, 16);
+        broadcast(LongStream.rangeClosed(101, 110).toArray());
+        when(outbox.history(102, 106, 17)).thenReturn(List.of(event(103), event(104), event(105), event(106)));
+
+        List<Long> received = received(102L, 9, () -> broadcast(111));
+
+        assertThat(received).containsExactly(103L, 104L, 105L, 106L, 107L, 108L, 109L, 110L, 111L);
+    }
+
+    @Test
+    void resyncsWhenTheOutboxNoLongerHasTheEvents() {
+        relay(4, 16);
+        broadcast(LongStream.rangeClosed(101, 110).toArray());
+        when(outbox.history(102, 106, 17)).thenReturn(null);
+
+        List<SystemEvent> received = events.getEventStream(102L, EventFilter.ALL).take(1).collectList().block(WAIT);
+
+        assertThat(received).singleElement().satisfies(event -> {
+            assertThat(event.getEventType()).isEqualTo(SystemEvent.EventType.STREAM_RESYNC.getValue());
+            assertThat(event.getSequence()).isEqualTo(110L);
+        });
+    }
+
+    @Test
+    void resyncsAnIdNeverHandedOut() {
+        relay(4, 16);
+        broadcast(101);
+
+        List<SystemEvent> received = events.getEventStream(999L, EventFilter.ALL).take(1).collectList().block(WAIT);
+
+        assertThat(received).extracting(SystemEvent::getEventType)
+            .containsExactly(SystemEvent.EventType.STREAM_RESYNC.getValue());
+    }
+
+    @Test
+    void waitsForAnIdAnotherInstanceHasAlreadyBroadcast() {
+        relay(4, 16);
+        broadcast(101);
+
+        // the client last saw 103 on another instance, which is ahead of this one
+        List<Long> received = received(103L, 1, () -> broadcast(102, 103, 104));
+
+        assertThat(received).containsExactly(104L);
+    }
+
+    @Test
+    void filteredOutEventsDoNotCountTowardsTheBacklog() {
+        relay(16, 2);
+        // eight events for site 2, two for site 1
+        for (long sequence = 101; sequence <= 110; sequence++) {
+            broadcast.accept(event(sequence, sequence % 5 == 0 ? 1L : 2L));
+        }
+        EventFilter siteOne = new EventFilter(Set.of(1L), Set.of(), Set.of());
+
+        List<Long> received = received(100L, siteOne, 3, () -> broadcast.accept(event(111, 1L)));
+
+        assertThat(received).containsExactly(105L, 110L, 111L);
+        assertThat(events.streamStats()).containsEntry("droppedEvents", 0L).containsEntry("maxLag", 0L);
+    }
+
+    @Test
+    void dropsOnlyMatchingEventsBeyondTheBacklog() {
+        relay(16, 2);
+        for (long sequence = 101; sequence <= 110; sequence++) {
+            broadcast.accept(event(sequence, sequence <= 104 ? 1L : 2L));
+        }
+        EventFilter siteOne = new EventFilter(Set.of(1L), Set.of(), Set.of());
+
+        List<SystemEvent> received = events.getEventStream(100L, siteOne).take(3).collectList().block(WAIT);
+
+        assertThat(received).extracting(SystemEvent::getEventType)
+            .containsExactly(SystemEvent.EventType.STREAM_DROPPED.getValue(), "inventory.updated", "inventory.updated");
+        assertThat(received.get(0).getData()).containsEntry("dropped", 2);
+        assertThat(received).extracting(SystemEvent::getSequence).containsExactly(102L, 103L, 104L);
+    }
+
+    private List<Long> received(long lastEventId, int count, Runnable then) {
+        return received(lastEventId, EventFilter.ALL, count, then);
+    }
+
+    private List<Long> received(long lastEventId, EventFilter filter, int count, Runnable then) {
+        Flux<SystemEvent> stream = events.getEventStream(lastEventId, filter).take(count).cache();
+        stream.subscribe();
+        then.run();
+        return stream.map(SystemEvent::getSequence).collectList().block(WAIT);
+    }
+
+    private void broadcast(long... sequences) {
+        for (long sequence : sequences) {
+            broadcast.accept(event(sequence));
+        }
+    }
+
+    private static SystemEvent event(long sequence) {
+        return event(sequence, 1L);
+    }
+
+    private static SystemEvent event(long sequence, long siteId) {
+        return SystemEvent.builder()
+            .sequence(sequence)
+            .eventType("inventory.updated")
+            .entity("InventoryItem")
+            .entityId(sequence)
+            .siteId(siteId)
+            .data(Map.of("siteId", siteId))
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.InventoryItem;
+import com.pantrypulse.model.Site;
+import com.pantrypulse.repository.SiteRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers one item with concurrent +k/-k adjustments against embedded Postgres, with and
+ * without coalescing, and checks that no adjustment is lost and that the published
+ * {@code inventory.updated} events account for every one of them.
+ */
+class InventoryAdjusterTest {
+
+    private static final int THREADS = 16;
+    private static final int ADJUSTMENTS_PER_THREAD = 200;
+    private static final int INITIAL_QTY = 1000;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbc;
+
+    private final Queue<Map<String, Object>> updatedEvents = new ConcurrentLinkedQueue<>();
+    private final SiteRepository siteRepo = mock(SiteRepository.class);
+    private final EventService eventService = mock(EventService.class);
+    private long itemId;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbc = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbc.execute("CREATE TABLE inventory_item (id BIGSERIAL PRIMARY KEY, site_id BIGINT, sku VARCHAR(100), " +
+            "name VARCHAR(255), tags TEXT, qty INTEGER, unit VARCHAR(50), reorder_threshold INTEGER)");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        itemId = jdbc.queryForObject("INSERT INTO inventory_item (site_id, sku, name, qty, unit, reorder_threshold) " +
+            "VALUES (1, 'RICE-5KG', 'Rice', ?, 'bag', 0) RETURNING id", Long.class, INITIAL_QTY);
+        when(siteRepo.findById(1L)).thenReturn(Optional.of(Site.builder().id(1L).name("Westside Pantry").build()));
+        doAnswer(call -> {
+            if ("inventory.updated".equals(call.getArgument(0))) {
+                updatedEvents.add(call.getArgument(3));
+            }
+            return null;
+        }).when(eventService).publishEvent(anyString(), anyString(), anyLong(), anyMap());
+    }
+
+    @Test
+    void concurrentAdjustmentsAreNeverLost() throws Exception {
+        InventoryAdjuster adjuster = new InventoryAdjuster(jdbc, siteRepo, eventService, 0, 2);
+
+        int expectedDelta = run(adjuster, "plain");
+
+        assertThat(qty()).isEqualTo(INITIAL_QTY + expectedDelta);
+        assertThat(updatedEvents).hasSize(THREADS * ADJUSTMENTS_PER_THREAD);
+        assertThat(sumOf("adjustment")).isEqualTo(expectedDelta);
+    }
+
+    @Test
+    void coalescedAdjustmentsAddUpAndPublishFewerEvents() throws Exception {
+        InventoryAdjuster adjuster = new InventoryAdjuster(jdbc, siteRepo, eventService, 5, 2);
+        try {
+            int expectedDelta = run(adjuster, "coalescing");
+
+            assertThat(qty()).isEqualTo(INITIAL_QTY + expectedDelta);
+            assertThat(updatedEvents).hasSizeLessThan(THREADS * ADJUSTMENTS_PER_THREAD);
+            assertThat(sumOf("adjustment")).isEqualTo(expectedDelta);
+            // every call is in exactly one write: merged writes carry their size, single ones count 1
+            int calls = updatedEvents.stream()
+                .mapToInt(data -> ((Number) data.getOrDefault("coalesced", 1)).intValue())
+                .sum();
+            assertThat(calls).isEqualTo(THREADS * ADJUSTMENTS_PER_THREAD);
+        } finally {
+            adjuster.stop();
+        }
+    }
+
+    /**
+     * Each thread alternates +3 and -1 on the item; returns the net change.
+     */
+    private int run(InventoryAdjuster adjuster, String mode) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                    InventoryItem item = adjuster.adjust(itemId, i % 2 == 0 ? 3 : -1);
+                    assertThat(item.getSite().getId()).isEqualTo(1L);
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+        int total = THREADS * ADJUSTMENTS_PER_THREAD;
+        System.out.printf("inventory adjust (%s): %d adjustments in %.2f s (%.0f/s), %d writes%n",
+            mode, total, seconds, total / seconds, updatedEvents.size());
+        return THREADS * (ADJUSTMENTS_PER_THREAD / 2) * (3 - 1);
+    }
+
+    private int qty() {
+        return jdbc.queryForObject("SELECT qty FROM inventory_item WHERE id = ?", Integer.class, itemId);
+    }
+
+    private int sumOf(String key) {
+        return updatedEvents.stream().mapToInt(data -> ((Number) data.get(key)).intValue()).sum();
+    }
+}
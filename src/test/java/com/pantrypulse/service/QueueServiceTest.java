@@ -0,0 +1,52 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.model.QueueToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    @Test
+    void unwrittenChangesReplaceTheirRowsAndNewTokensAreAdded() {
+        List<QueueToken> table = List.of(token(2, 2, QueueToken.TokenStatus.WAITING),
+            token(1, 1, QueueToken.TokenStatus.WAITING));
+        Map<Long, QueueToken> unwritten = Map.of(
+            1L, token(1, 1, QueueToken.TokenStatus.CALLED),
+            3L, token(3, 3, QueueToken.TokenStatus.WAITING));
+
+        List<QueueToken> merged = QueueService.merge(table, unwritten, token -> true, Integer.MAX_VALUE);
+
+        assertThat(merged).extracting(QueueToken::getId).containsExactly(3L, 2L, 1L);
+        assertThat(merged.get(2).getStatus()).isEqualTo(QueueToken.TokenStatus.CALLED);
+    }
+
+    @Test
+    void pageKeepsOnlyUnwrittenTokensInRangeAndTheLimit() {
+        // page strictly before token 4: the table returned 3 and 2
+        List<QueueToken> table = List.of(token(3, 3, QueueToken.TokenStatus.WAITING),
+            token(2, 2, QueueToken.TokenStatus.WAITING));
+        Map<Long, QueueToken> unwritten = Map.of(
+            5L, token(5, 5, QueueToken.TokenStatus.WAITING),
+            1L, token(1, 1, QueueToken.TokenStatus.COMPLETED));
+
+        List<QueueToken> merged = QueueService.merge(table, unwritten, token -> token.getId() < 4, 2);
+
+        assertThat(merged).extracting(QueueToken::getId).containsExactly(3L, 2L);
+    }
+
+    private static QueueToken token(long id, int minute, QueueToken.TokenStatus status) {
+        return QueueToken.builder()
+            .id(id)
+            .tokenNumber("AUS1-20260302-000" + id)
+            .status(status)
+            .createdAt(T0.plusMinutes(minute))
+            .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.pantrypulse.service;
+
+import com.pantrypulse.config.TwoLevelCacheManager;
+import com.pantrypulse.model.SystemEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ResourceVersionsTest {
+
+    private final TwoLevelCacheManager caches = new TwoLevelCacheManager(null, 100, Duration.ofMinutes(1),
+        Map.of(ResourceVersions.SITES, Duration.ofMinutes(10)), Duration.ofMinutes(10));
+    private final ResourceVersions versions = new ResourceVersions(mock(EventService.class), caches);
+
+    @Test
+    void siteEventFromAnotherInstanceDropsCachedSitesBeforeTheVersionMoves() {
+        Cache sites = caches.getCache(ResourceVersions.SITES);
+        sites.put("all", "stale");
+        long before = versions.current(ResourceVersions.SITES);
+
+        versions.onEvent(SystemEvent.builder().eventType("site.updated").entity("Site").entityId(1L).build());
+
+        assertThat(sites.get("all")).isNull();
+        assertThat(versions.current(ResourceVersions.SITES)).isGreaterThan(before);
+    }
+
+    @Test
+    void writerSeesItsChangeWithoutWaitingForTheEvent() {
+        Cache sites = caches.getCache(ResourceVersions.SITES);
+        sites.put("all", "stale");
+        long before = versions.current(ResourceVersions.SITES);
+
+        versions.changed(ResourceVersions.SITES);
+
+        assertThat(sites.get("all")).isNull();
+        assertThat(versions.current(ResourceVersions.SITES)).isGreaterThan(before);
+    }
+}
@@ -0,0 +1,263 @@
+package com.pantrypulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pantrypulse.model.Webhook;
+import com.pantrypulse.model.WebhookDeadLetter;
+import com.pantrypulse.repository.WebhookDeadLetterRepository;
+import com.pantrypulse.repository.WebhookRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs {@link WebhookDispatcher} against a local stub HTTP server with fast, slow,
+ * flaky, failing, rejecting and hanging endpoints.
+ */
+class WebhookDispatcherTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+    private final Map<String, AtomicInteger> served = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> arrivals = new ConcurrentHashMap<>();
+
+    private final WebhookRepository webhookRepo = mock(WebhookRepository.class);
+    private final WebhookDeadLetterRepository deadLetterRepo = mock(WebhookDeadLetterRepository.class);
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        AtomicInteger flakyCalls = new AtomicInteger();
+        stub("/ok", exchange -> 200);
+        stub("/slow", exchange -> {
+            sleep(500);
+            return 200;
+        });
+        stub("/flaky", exchange -> flakyCalls.incrementAndGet() <= 2 ? 503 : 200);
+        stub("/error", exchange -> 500);
+        stub("/bad", exchange -> 400);
+        stub("/hang", exchange -> {
+            sleep(2000);
+            return 200;
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoffThenDelivers() {
+        dispatcher = dispatcher(5000, 4, 5, 100);
+
+        dispatcher.dispatch(hook(1L, "/flaky"), "queue.token.created", Map.of("id", 1));
+
+        await(() -> delivered() == 1, 5000);
+        assertThat(served("/flaky")).isEqualTo(3);
+        assertThat(dispatcher.stats()).containsEntry("retries", 2L).containsEntry("deadLettered", 0L);
+        // two backoffs of 100 ms and 200 ms, each with up to 50% jitter
+        List<Long> times = arrivals.get("/flaky");
+        assertThat(times.get(2) - times.get(0)).isGreaterThanOrEqualTo(150);
+    }
+
+    @Test
+    void deadLettersAfterRetriesAreExhausted() {
+        dispatcher = dispatcher(5000, 4, 2, 20);
+
+        dispatcher.dispatch(hook(2L, "/error"), "site.updated", Map.of("id", 2));
+
+        await(() -> deadLettered() == 1, 5000);
+        assertThat(served("/error")).isEqualTo(3);
+        WebhookDeadLetter letter = savedDeadLetter();
+        assertThat(letter.getWebhookId()).isEqualTo(2L);
+        assertThat(letter.getAttempts()).isEqualTo(3);
+        assertThat(letter.getLastError()).contains("500");
+    }
+
+    @Test
+    void timeoutsAreRetriedThenDeadLettered() {
+        dispatcher = dispatcher(200, 4, 1, 20);
+
+        dispatcher.dispatch(hook(3L, "/hang"), "site.updated", Map.of("id", 3));
+
+        await(() -> deadLettered() == 1, 5000);
+        assertThat(served("/hang")).isZero();
+        assertThat(arrivals.get("/hang")).hasSize(2);
+        assertThat(savedDeadLetter().getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        dispatcher = dispatcher(5000, 4, 5, 20);
+
+        dispatcher.dispatch(hook(4L, "/bad"), "site.updated", Map.of("id", 4));
+
+        await(() -> deadLettered() == 1, 5000);
+        assertThat(served("/bad")).isEqualTo(1);
+        assertThat(savedDeadLetter().getAttempts()).isEqualTo(1);
+        assertThat(dispatcher.stats()).containsEntry("retries", 0L);
+    }
+
+    @Test
+    void slowEndpointDoesNotDelayOthers() {
+        dispatcher = dispatcher(5000, 2, 0, 20);
+        Webhook slow = hook(5L, "/slow");
+        Webhook fast = hook(6L, "/ok");
+
+        // six slow deliveries, two at a time: 1.5 s to drain
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(slow, "site.updated", Map.of("i", i));
+        }
+        for (int i = 0; i < 20; i++) {
+            dispatcher.dispatch(fast, "site.updated", Map.of("i", i));
+        }
+
+        await(() -> served("/ok") == 20, 1000);
+        assertThat(served("/slow")).isLessThan(6);
+        await(() -> delivered() == 26, 5000);
+    }
+
+    @Test
+    void retiredEndpointDrainsThenGoesAway() {
+        dispatcher = dispatcher(5000, 1, 0, 20);
+        Webhook slow = hook(8L, "/slow");
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(slow, "site.updated", Map.of("i", i));
+        }
+
+        dispatcher.retainEndpoints(Set.of());
+
+        await(() -> delivered() == 3, 5000);
+        await(() -> (int) dispatcher.stats().get("endpoints") == 0, 1000);
+
+        // the URL is subscribed again: a fresh queue takes over
+        dispatcher.dispatch(slow, "site.updated", Map.of("i", 3));
+        await(() -> delivered() == 4, 5000);
+        assertThat(dispatcher.stats()).containsEntry("deadLettered", 0L);
+    }
+
+    @Test
+    void reportsThroughputAndP99() {
+        int deliveries = 2000;
+        dispatcher = dispatcher(5000, 16, 0, 20);
+        Webhook fast = hook(7L, "/ok");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < deliveries; i++) {
+            dispatcher.dispatch(fast, "queue.token.created", Map.of("i", i));
+            if (i % 200 == 199) {
+                // stay under the 256-slot endpoint queue
+                int sent = i + 1;
+                await(() -> delivered() >= sent - 100, 5000);
+            }
+        }
+        await(() -> delivered() == deliveries, 15000);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> stats = dispatcher.stats();
+        System.out.printf("webhook delivery: %d in %.2f s (%.0f/s), p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+            deliveries, seconds, deliveries / seconds, stats.get("p50LatencyMillis"),
+            stats.get("p99LatencyMillis"), stats.get("maxLatencyMillis"));
+        assertThat(stats).containsEntry("deadLettered", 0L);
+        assertThat((double) stats.get("p99LatencyMillis")).isPositive()
+            .isLessThanOrEqualTo((double) stats.get("maxLatencyMillis"));
+        verify(webhookRepo, atLeastOnce()).markTriggered(eq(7L), any());
+    }
+
+    private WebhookDispatcher dispatcher(long readTimeoutMs, int concurrency, int maxRetries, long initialBackoffMs) {
+        return new WebhookDispatcher(WebClient.builder(), webhookRepo, deadLetterRepo, new ObjectMapper(),
+            new SimpleMeterRegistry(), 1000, readTimeoutMs, concurrency, 256, maxRetries,
+            initialBackoffMs, 5000);
+    }
+
+    private Webhook hook(Long id, String path) {
+        return Webhook.builder().id(id).url(baseUrl + path).active(true).build();
+    }
+
+    private long delivered() {
+        return (long) dispatcher.stats().get("delivered");
+    }
+
+    private long deadLettered() {
+        return (long) dispatcher.stats().get("deadLettered");
+    }
+
+    private int served(String path) {
+        return served.computeIfAbsent(path, p -> new AtomicInteger()).get();
+    }
+
+    private WebhookDeadLetter savedDeadLetter() {
+        ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepo, timeout(1000)).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private void stub(String path, Responder responder) {
+        server.createContext(path, exchange -> {
+            arrivals.computeIfAbsent(path, p -> new CopyOnWriteArrayList<>()).add(System.currentTimeMillis());
+            exchange.getRequestBody().readAllBytes();
+            int status = responder.status(exchange);
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            served.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        });
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within " + timeoutMs + " ms");
+            }
+            sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Responder {
+        int status(HttpExchange exchange);
+    }
+}